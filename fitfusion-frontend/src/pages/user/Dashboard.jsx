@@ -23,8 +23,8 @@ export default function Dashboard() {
 
   const fetchPlans = async () => {
     try {
-      const response = await api.get(`/users/${user.id}/plans`);
-      setPlans(response.data || []);
+      const response = await api.get(`/users/${user.id}/plans`, { params: { limit: 1 } });
+      setPlans(response.data?.items || []);
     } catch (err) {
       console.error('Failed to fetch plans:', err);
       setPlans([]);
@@ -13,13 +13,13 @@ export default function PlanDetails() {
   const [selectedWeek, setSelectedWeek] = useState(1);
   const [selectedDay, setSelectedDay] = useState(1);
   const [planData, setPlanData] = useState(null);
-  const [completions, setCompletions] = useState([]);
+  const [progress, setProgress] = useState(null);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
 
   useEffect(() => {
     fetchPlanDetails();
-    fetchCompletions();
+    fetchProgress();
   }, [id]);
 
   const fetchPlanDetails = async () => {
@@ -37,31 +37,29 @@ export default function PlanDetails() {
     }
   };
 
-  const fetchCompletions = async () => {
+  const fetchProgress = async () => {
     try {
-      const response = await api.get(`/users/${user.id}/workout-completions`, {
-        params: { planBundleId: id }
-      });
-      setCompletions(response.data || []);
+      const response = await api.get(`/users/${user.id}/plans/${id}/progress`);
+      setProgress(response.data);
     } catch (err) {
-      console.error('Failed to fetch completions:', err);
+      console.error('Failed to fetch progress:', err);
     }
   };
 
-  const isExerciseCompleted = (exerciseName) => {
-    return completions.some(c => 
-      c.weekNumber === selectedWeek && 
-      c.dayNumber === selectedDay && 
-      c.exerciseName === exerciseName
-    );
+  // `done` has one '0'/'1' per exercise of the day, in plan order
+  const isExerciseCompleted = (index) => {
+    const day = progress?.weeks
+      ?.find(w => w.weekNumber === selectedWeek)
+      ?.days?.find(d => d.dayNumber === selectedDay);
+    return day?.done?.[index] === '1';
   };
 
-  const toggleExerciseCompletion = async (exercise, e) => {
+  const toggleExerciseCompletion = async (exercise, index, e) => {
     e.preventDefault();
     e.stopPropagation();
     
     const exerciseName = exercise.name || exercise.exercise_name;
-    const isCompleted = isExerciseCompleted(exerciseName);
+    const isCompleted = isExerciseCompleted(index);
     
     try {
       if (isCompleted) {
@@ -89,8 +87,8 @@ export default function PlanDetails() {
         });
       }
       
-      // Refresh completions
-      await fetchCompletions();
+      // Refresh progress
+      await fetchProgress();
     } catch (err) {
       console.error('Failed to toggle completion:', err);
     }
@@ -481,16 +479,16 @@ export default function PlanDetails() {
                                     <ChevronRight className="text-gray-500 group-hover:text-primary-400 transition-colors" size={18} />
                                   </div>
                                   <button 
-                                    onClick={(e) => toggleExerciseCompletion(exercise, e)}
+                                    onClick={(e) => toggleExerciseCompletion(exercise, index, e)}
                                     className={`p-2 rounded-full transition-colors ${
-                                      isExerciseCompleted(exercise.name || exercise.exercise_name)
+                                      isExerciseCompleted(index)
                                         ? 'bg-green-500/20 text-green-400'
                                         : 'hover:bg-green-500/10 text-gray-500 hover:text-green-400'
                                     }`}
                                   >
                                     <CheckCircle 
                                       size={20} 
-                                      fill={isExerciseCompleted(exercise.name || exercise.exercise_name) ? 'currentColor' : 'none'}
+                                      fill={isExerciseCompleted(index) ? 'currentColor' : 'none'}
                                     />
                                   </button>
                                 </div>
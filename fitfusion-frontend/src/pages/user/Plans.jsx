@@ -12,16 +12,18 @@ export default function Plans() {
   const [plans, setPlans] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
+  const [nextCursor, setNextCursor] = useState(null);
 
   useEffect(() => {
     fetchPlans();
   }, []);
 
-  const fetchPlans = async () => {
+  const fetchPlans = async (before = null) => {
     try {
-      const response = await api.get(`/users/${user.id}/plans`);
+      const response = await api.get(`/users/${user.id}/plans`, { params: { before } });
       console.log('[Plans] Fetched plans:', response.data);
-      setPlans(response.data);
+      setPlans((prev) => (before ? [...prev, ...response.data.items] : response.data.items));
+      setNextCursor(response.data.nextCursor);
     } catch (err) {
       console.error('Failed to fetch plans:', err);
       setError('Failed to load plans');
@@ -131,7 +133,7 @@ export default function Plans() {
                           <span className="text-xs text-gray-400">Workout</span>
                         </div>
                         <p className="font-bold">
-                          {plan.workoutPlan ? 'Included' : 'N/A'}
+                          {plan.workoutPlanId ? `${plan.totalWeeks || '?'} weeks` : 'N/A'}
                         </p>
                       </div>
                       <div className="bg-white/5 rounded-xl p-3">
@@ -140,7 +142,7 @@ export default function Plans() {
                           <span className="text-xs text-gray-400">Diet</span>
                         </div>
                         <p className="font-bold">
-                          {plan.dietPlan ? 'Included' : 'N/A'}
+                          {plan.dietPlanId ? `${plan.totalDailyCalories || '?'} kcal/day` : 'N/A'}
                         </p>
                       </div>
                     </div>
@@ -160,6 +162,14 @@ export default function Plans() {
             })}
           </div>
         )}
+
+        {nextCursor && (
+          <div className="flex justify-center mt-8">
+            <button onClick={() => fetchPlans(nextCursor)} className="btn btn-secondary">
+              Load older plans
+            </button>
+          </div>
+        )}
       </div>
     </Layout>
   );
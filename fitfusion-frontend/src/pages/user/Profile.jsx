@@ -64,16 +64,16 @@ export default function Profile() {
 
   const fetchStats = async () => {
     try {
-      const plansResponse = await api.get(`/users/${user.id}/plans`);
-      const plans = plansResponse.data;
+      const plansResponse = await api.get(`/users/${user.id}/plans`, { params: { limit: 100 } });
+      const plans = plansResponse.data.items;
       
       const activePlans = plans.filter(p => p.status === 'active').length;
       const completedPlans = plans.filter(p => p.status === 'completed').length;
       
       // Calculate total workouts (sum of all weeks * frequency)
       const totalWorkouts = plans.reduce((sum, plan) => {
-        const weeks = plan.workoutPlan?.totalWeeks || 0;
-        const frequency = plan.workoutPlan?.frequencyPerWeek || 0;
+        const weeks = plan.totalWeeks || 0;
+        const frequency = plan.frequencyPerWeek || 0;
         return sum + (weeks * frequency);
       }, 0);
 
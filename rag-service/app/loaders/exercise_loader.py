@@ -1,18 +1,26 @@
 from app.db import get_connection
 import json
 
-def load_exercises():
+def load_exercises(ids=None):
     """
-    Load all exercises from database and convert to document format for RAG
+    Load exercises from database and convert to document format for RAG
+    If ids is given, only those exercises are loaded (incremental reindex)
     """
+    if ids is not None and not ids:
+        return []
+    
     conn = get_connection()
     cursor = conn.cursor(dictionary=True)
     
-    cursor.execute("""
+    query = """
         SELECT id, name, muscle_group, difficulty, equipment_required, description, video_url
         FROM exercise
-        ORDER BY id
-    """)
+    """
+    params = ()
+    if ids is not None:
+        query += " WHERE id IN (" + ", ".join(["%s"] * len(ids)) + ")"
+        params = tuple(ids)
+    cursor.execute(query + " ORDER BY id", params)
     
     rows = cursor.fetchall()
     cursor.close()
@@ -1,20 +1,28 @@
 from app.db import get_connection
 import json
 
-def load_food_items():
+def load_food_items(ids=None):
     """
-    Load all food items from database and convert to document format for RAG
+    Load food items from database and convert to document format for RAG
+    If ids is given, only those food items are loaded (incremental reindex)
     """
+    if ids is not None and not ids:
+        return []
+    
     conn = get_connection()
     cursor = conn.cursor(dictionary=True)
     
-    cursor.execute("""
+    query = """
         SELECT id, name, category, calories_per_100g, protein_per_100g, 
                carbs_per_100g, fats_per_100g, vitamins, minerals, 
                serving_description, is_veg, description
         FROM food_item
-        ORDER BY id
-    """)
+    """
+    params = ()
+    if ids is not None:
+        query += " WHERE id IN (" + ", ".join(["%s"] * len(ids)) + ")"
+        params = tuple(ids)
+    cursor.execute(query + " ORDER BY id", params)
     
     rows = cursor.fetchall()
     cursor.close()
@@ -3,10 +3,13 @@ FitFusion RAG Microservice - FastAPI Application
 Handles workout and diet plan generation using RAG
 """
 from fastapi import FastAPI, HTTPException, Header, Depends
+from fastapi.responses import StreamingResponse
 from fastapi.middleware.cors import CORSMiddleware
+from fastapi.middleware.gzip import GZipMiddleware
 from pydantic import BaseModel, Field
 from typing import Optional, List, Dict
 import time
+import json
 from datetime import datetime
 
 from app.config import INTERNAL_API_KEY
@@ -29,6 +32,9 @@ app.add_middleware(
     allow_headers=["*"],
 )
 
+# Compress large plan responses for clients that accept gzip (the Spring backend does)
+app.add_middleware(GZipMiddleware, minimum_size=1024)
+
 # Initialize RAG Engine (singleton)
 rag_engine: Optional[RAGEngine] = None
 
@@ -77,6 +83,11 @@ class ReindexRequest(BaseModel):
     """Request to reindex data"""
     tables: Optional[List[str]] = None
     mode: str = Field(default="full", pattern="^(full|incremental)$")
+    # Incremental mode: rows to (re-)embed and rows to remove from the index
+    exercise_ids: List[int] = []
+    food_item_ids: List[int] = []
+    deleted_exercise_ids: List[int] = []
+    deleted_food_item_ids: List[int] = []
 
 # ============================================
 # Authentication
@@ -208,6 +219,61 @@ async def generate_plan(
         print(f"Traceback: {traceback.format_exc()}")
         raise HTTPException(status_code=500, detail=f"Plan generation failed: {str(e)}")
 
+@app.post("/generate/stream")
+def generate_plan_stream(
+    request: GeneratePlanRequest,
+    authenticated: bool = Depends(verify_api_key)
+):
+    """
+    Generate plans as a stream of newline-delimited JSON events:
+    progress, workout_summary, workout_week (one per week), diet_plan,
+    then a final complete event carrying the same payload as /generate.
+    Clients should send Accept-Encoding: identity so events are not held back by gzip.
+    Requires internal API key authentication
+    """
+    if not rag_engine:
+        raise HTTPException(status_code=503, detail="RAG engine not initialized")
+
+    def event(name: str, **data) -> str:
+        return json.dumps({"event": name, **data}, default=str) + "\n"
+
+    def stream():
+        start_time = time.time()
+        preferences_dict = request.preferences.model_dump()
+        try:
+            yield event("progress", stage="workout_plan", message="Generating workout plan")
+            workout_plan = rag_engine.generate_workout_plan(preferences_dict)
+
+            yield event("workout_summary",
+                        total_weeks=workout_plan.get("total_weeks"),
+                        frequency_per_week=workout_plan.get("frequency_per_week"),
+                        summary=workout_plan.get("summary"))
+            for week in workout_plan.get("weeks", []):
+                yield event("workout_week", week=week)
+
+            yield event("progress", stage="diet_plan", message="Generating diet plan")
+            diet_plan = rag_engine.generate_diet_plan(preferences_dict)
+            yield event("diet_plan", diet_plan=diet_plan)
+
+            duration_ms = int((time.time() - start_time) * 1000)
+            print(f"✓ Streamed plan generation completed in {duration_ms}ms")
+            yield event("complete",
+                        status="success",
+                        workout_plan=workout_plan,
+                        diet_plan=diet_plan,
+                        metadata={
+                            "duration_ms": duration_ms,
+                            "user_id": request.user_id,
+                            "generated_at": datetime.now().isoformat(),
+                            "llm_model": "gemini-1.5-flash",
+                            "embedding_model": "models/embedding-001"
+                        })
+        except Exception as e:
+            print(f"✗ Streamed generation error: {e}")
+            yield event("error", message=f"Plan generation failed: {str(e)}")
+
+    return StreamingResponse(stream(), media_type="application/x-ndjson")
+
 # ============================================
 # Admin Endpoints
 # ============================================
@@ -225,7 +291,15 @@ async def reindex_data(
         raise HTTPException(status_code=503, detail="RAG engine not initialized")
     
     try:
-        result = rag_engine.reindex(tables=request.tables)
+        if request.mode == "incremental":
+            result = rag_engine.reindex_incremental(
+                exercise_ids=request.exercise_ids,
+                food_item_ids=request.food_item_ids,
+                deleted_exercise_ids=request.deleted_exercise_ids,
+                deleted_food_item_ids=request.deleted_food_item_ids
+            )
+        else:
+            result = rag_engine.reindex(tables=request.tables)
         return result
     except Exception as e:
         raise HTTPException(status_code=500, detail=f"Reindexing failed: {str(e)}")
@@ -245,6 +319,7 @@ async def root():
             "health": "/health",
             "status": "/status",
             "generate": "/generate (POST, requires API key)",
+            "generate_stream": "/generate/stream (POST, requires API key, NDJSON)",
             "reindex": "/reindex (POST, requires API key)"
         },
         "documentation": "/docs"
@@ -307,6 +307,43 @@ class RAGEngine:
             "message": "Index rebuilt successfully"
         }
     
+    def reindex_incremental(self, exercise_ids: List[int], food_item_ids: List[int],
+                            deleted_exercise_ids: List[int], deleted_food_item_ids: List[int]):
+        """
+        Re-embed only the given rows and drop deleted ones, instead of rebuilding the index
+        """
+        if self.index is None:
+            return self.reindex()
+        
+        collection = self.chroma_client.get_collection("fitfusion_collection")
+        
+        # Remove stale vectors for changed and deleted rows (node metadata is stored flat in Chroma)
+        removed = 0
+        for source, ids in (("exercise", exercise_ids + deleted_exercise_ids),
+                            ("food_item", food_item_ids + deleted_food_item_ids)):
+            if ids:
+                where = {"$and": [{"source": source}, {"id": {"$in": list(set(ids))}}]}
+                stale = collection.get(where=where, include=[])
+                if stale["ids"]:
+                    collection.delete(ids=stale["ids"])
+                    removed += len(stale["ids"])
+        
+        documents = [Document(text=doc['text'], metadata=doc['metadata'])
+                     for doc in load_exercises(exercise_ids) + load_food_items(food_item_ids)]
+        for doc in documents:
+            self.index.insert(doc)
+        
+        self.last_indexed_at = datetime.now().isoformat()
+        print(f"✓ Incremental reindex: {len(documents)} documents embedded, {removed} vectors removed")
+        return {
+            "status": "success",
+            "mode": "incremental",
+            "indexed_at": self.last_indexed_at,
+            "embedded": len(documents),
+            "removed": removed,
+            "message": "Index updated incrementally"
+        }
+    
     def get_status(self) -> dict:
         """
         Get current index status
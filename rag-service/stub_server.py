@@ -0,0 +1,132 @@
+"""
+Local stand-in for the RAG service, for exercising the Spring backend without
+Gemini or ChromaDB. Serves canned plans and streams /generate/stream as chunked
+NDJSON with a delay between events, like a slow LLM would.
+
+Run:  python stub_server.py [port] [delay_seconds]
+Then start the backend with RAG_SERVICE_URL=http://localhost:<port>
+"""
+import json
+import sys
+import time
+from datetime import datetime
+from http.server import BaseHTTPRequestHandler, ThreadingHTTPServer
+
+PORT = int(sys.argv[1]) if len(sys.argv) > 1 else 8001
+DELAY = float(sys.argv[2]) if len(sys.argv) > 2 else 1.5
+
+
+def build_workout_plan(weeks: int) -> dict:
+    return {
+        "total_weeks": weeks,
+        "frequency_per_week": 3,
+        "summary": "Stub full-body plan",
+        "weeks": [
+            {
+                "week_number": w,
+                "days": [
+                    {
+                        "day_number": d,
+                        "focus": "Full Body",
+                        "exercises": [
+                            {"exercise_name": "Push Ups", "sets": 3, "reps": 10 + w, "rest_seconds": 60, "notes": None},
+                            {"exercise_name": "Squats", "sets": 3, "reps": 12 + w, "rest_seconds": 60, "notes": None},
+                        ],
+                    }
+                    for d in range(1, 4)
+                ],
+            }
+            for w in range(1, weeks + 1)
+        ],
+    }
+
+
+def build_diet_plan() -> dict:
+    meal = [{"food_name": "Daal", "serving_size": "1 cup", "calories": 230, "protein": 18, "carbs": 40, "fats": 1}]
+    return {
+        "total_daily_calories": 2200,
+        "total_daily_protein": 120,
+        "summary": "Stub balanced diet",
+        "meals": {"breakfast": meal, "lunch": meal, "dinner": meal, "snack_1": [], "snack_2": []},
+        "daily_totals": {"calories": 2200, "protein": 120, "carbs": 250, "fats": 60},
+    }
+
+
+def metadata(user_id) -> dict:
+    return {
+        "duration_ms": 0,
+        "user_id": user_id,
+        "generated_at": datetime.now().isoformat(),
+        "llm_model": "stub",
+        "embedding_model": "stub",
+    }
+
+
+class StubHandler(BaseHTTPRequestHandler):
+    protocol_version = "HTTP/1.1"
+
+    def _read_json(self) -> dict:
+        length = int(self.headers.get("Content-Length", 0))
+        return json.loads(self.rfile.read(length) or b"{}")
+
+    def _send_json(self, body: dict, status: int = 200):
+        payload = json.dumps(body).encode()
+        self.send_response(status)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(payload)))
+        self.end_headers()
+        self.wfile.write(payload)
+
+    def _send_chunk(self, data: bytes):
+        self.wfile.write(f"{len(data):x}\r\n".encode() + data + b"\r\n")
+        self.wfile.flush()
+
+    def do_GET(self):
+        if self.path in ("/health", "/status"):
+            self._send_json({"status": "healthy", "service": "fitfusion-rag-stub", "vector_count": 0})
+        else:
+            self._send_json({"detail": "Not Found"}, 404)
+
+    def do_POST(self):
+        request = self._read_json()
+        user_id = request.get("user_id")
+        weeks = (request.get("preferences") or {}).get("duration_weeks", 4)
+
+        if self.path == "/generate":
+            time.sleep(DELAY * (weeks + 2))
+            self._send_json({
+                "status": "success",
+                "workout_plan": build_workout_plan(weeks),
+                "diet_plan": build_diet_plan(),
+                "metadata": metadata(user_id),
+            })
+        elif self.path == "/generate/stream":
+            self.send_response(200)
+            self.send_header("Content-Type", "application/x-ndjson")
+            self.send_header("Transfer-Encoding", "chunked")
+            self.end_headers()
+
+            workout_plan = build_workout_plan(weeks)
+            diet_plan = build_diet_plan()
+            events = [{"event": "progress", "stage": "workout_plan", "message": "Generating workout plan"},
+                      {"event": "workout_summary", "total_weeks": weeks, "frequency_per_week": 3,
+                       "summary": workout_plan["summary"]}]
+            events += [{"event": "workout_week", "week": week} for week in workout_plan["weeks"]]
+            events += [{"event": "progress", "stage": "diet_plan", "message": "Generating diet plan"},
+                       {"event": "diet_plan", "diet_plan": diet_plan},
+                       {"event": "complete", "status": "success", "workout_plan": workout_plan,
+                        "diet_plan": diet_plan, "metadata": metadata(user_id)}]
+            for event in events:
+                time.sleep(DELAY)
+                self._send_chunk((json.dumps(event) + "\n").encode())
+            self._send_chunk(b"")
+        elif self.path == "/reindex":
+            self._send_json({"status": "success", "indexed_at": datetime.now().isoformat(),
+                             "message": "Stub reindex", "mode": request.get("mode")})
+        else:
+            self._send_json({"detail": "Not Found"}, 404)
+
+
+if __name__ == "__main__":
+    print(f"🧪 RAG stub listening on http://localhost:{PORT} (event delay {DELAY}s)")
+    ThreadingHTTPServer(("0.0.0.0", PORT), StubHandler).serve_forever()
@@ -0,0 +1,12 @@
+-- Drops the inline JSON columns that content_blob replaced. This cannot be undone, so it
+-- is not run by the application. Run it by hand once every instance runs a version that
+-- reads plans from content_blob and the checks below all return 0; restarting any
+-- instance re-runs the backfill for rows written by older instances in the meantime.
+
+SELECT COUNT(*) FROM workout_plan WHERE plan_hash IS NULL;
+SELECT COUNT(*) FROM diet_plan WHERE plan_hash IS NULL;
+SELECT COUNT(*) FROM plan_bundle WHERE preferences_hash IS NULL;
+
+ALTER TABLE workout_plan DROP COLUMN plan_json;
+ALTER TABLE diet_plan DROP COLUMN plan_json;
+ALTER TABLE plan_bundle DROP COLUMN preferences_snapshot;
@@ -0,0 +1,48 @@
+package com.fitfusion.config;
+
+import com.fitfusion.service.ActivityRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills user_activity_daily from existing completions the first time it starts up empty.
+ * Each user is rebuilt in its own short transaction; a run that stops halfway is finished
+ * by {@link com.fitfusion.service.ActivityRollupChecker}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityRollupBackfill implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityRollupService rollupService;
+
+    @Value("${activity.rollup.backfill-on-startup:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        Integer rollupRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_activity_daily", Integer.class);
+        if (rollupRows == null || rollupRows > 0) {
+            return;
+        }
+
+        List<Long> userIds = jdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM workout_completion ORDER BY user_id", Long.class);
+        for (Long userId : userIds) {
+            rollupService.rebuildUser(userId);
+        }
+        if (!userIds.isEmpty()) {
+            log.info("Backfilled daily activity rollups for {} users", userIds.size());
+        }
+    }
+}
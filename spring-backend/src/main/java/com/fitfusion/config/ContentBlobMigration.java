@@ -0,0 +1,90 @@
+package com.fitfusion.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.entity.ContentBlob;
+import com.fitfusion.service.ContentBlobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves JSON that older schemas stored inline (plan_json, preferences_snapshot) into
+ * content_blob. Runs in chunks and is a no-op once done. The legacy columns are only made
+ * nullable, so instances still on the old schema keep working during a rollout; dropping
+ * them is the separate, manual step in db/drop-legacy-json-columns.sql.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ContentBlobMigration implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContentBlobService contentBlobService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${plan.blob-migration.chunk-size:200}")
+    private int chunkSize;
+
+    @Override
+    public void run(String... args) {
+        migrate("workout_plan", "plan_json", "plan_hash", false);
+        migrate("diet_plan", "plan_json", "plan_hash", false);
+        migrate("plan_bundle", "preferences_snapshot", "preferences_hash", true);
+    }
+
+    private void migrate(String table, String legacyColumn, String hashColumn, boolean canonicalize) {
+        List<String> nullable = jdbcTemplate.queryForList(
+                "SELECT is_nullable FROM information_schema.columns "
+                        + "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?",
+                String.class, table, legacyColumn);
+        if (nullable.isEmpty()) {
+            return;
+        }
+        if ("NO".equals(nullable.get(0))) {
+            // New rows only carry the hash
+            jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + legacyColumn + " JSON NULL");
+        }
+
+        String select = "SELECT id, " + legacyColumn + " FROM " + table
+                + " WHERE " + hashColumn + " IS NULL AND " + legacyColumn + " IS NOT NULL LIMIT " + chunkSize;
+        String update = "UPDATE " + table + " SET " + hashColumn + " = ? WHERE id = ?";
+        int migrated = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(select);
+                for (Map<String, Object> row : rows) {
+                    ContentBlob blob = store(String.valueOf(row.get(legacyColumn)), canonicalize);
+                    jdbcTemplate.update(update, blob.getHash(), row.get("id"));
+                }
+                return rows.size();
+            });
+            migrated += chunk;
+        } while (chunk == chunkSize);
+
+        if (migrated > 0) {
+            log.info("Moved {} {}.{} values to content_blob", migrated, table, legacyColumn);
+        }
+    }
+
+    private ContentBlob store(String json, boolean canonicalize) {
+        if (!canonicalize) {
+            return contentBlobService.store(json);
+        }
+        try {
+            // Re-serialize so legacy snapshots share blobs with newly written ones
+            return contentBlobService.storeValue(objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {}));
+        } catch (Exception e) {
+            return contentBlobService.store(json);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fitfusion.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${plan.generation.executor.core-size:4}")
+    private int planGenerationCoreSize;
+
+    @Value("${plan.generation.executor.max-size:4}")
+    private int planGenerationMaxSize;
+
+    @Value("${plan.generation.executor.queue-capacity:20}")
+    private int planGenerationQueueCapacity;
+
+    @Value("${auth.password.executor.threads:2}")
+    private int passwordHashingThreads;
+
+    @Value("${auth.password.executor.queue-capacity:32}")
+    private int passwordHashingQueueCapacity;
+
+    /**
+     * Executor for MVC async requests, sized by spring.task.execution.*. Boot skips its own once
+     * the pools below exist and MVC then starts a thread per task, so it is declared here under
+     * Boot's bean name. Not @Primary, so the pools below are still injected by parameter name.
+     */
+    @Bean(name = "applicationTaskExecutor")
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Runs RAG plan generations off the request thread.
+     * Bounded on both threads and queue so a burst is rejected instead of piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor planGenerationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(planGenerationCoreSize);
+        executor.setMaxPoolSize(planGenerationMaxSize);
+        executor.setQueueCapacity(planGenerationQueueCapacity);
+        executor.setThreadNamePrefix("plan-gen-");
+        // Background generations keep the submitting request's id/user in their log lines
+        executor.setTaskDecorator(task -> {
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            return () -> {
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    task.run();
+                } finally {
+                    MDC.clear();
+                }
+            };
+        });
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs BCrypt hashing so a login burst can use at most these threads' worth of CPU.
+     * A full queue rejects immediately rather than letting logins pile up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(passwordHashingThreads);
+        executor.setMaxPoolSize(passwordHashingThreads);
+        executor.setQueueCapacity(passwordHashingQueueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
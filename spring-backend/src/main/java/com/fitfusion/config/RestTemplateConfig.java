@@ -1,23 +1,99 @@
 package com.fitfusion.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.function.ToIntFunction;
+
 @Configuration
 public class RestTemplateConfig {
 
     @Value("${rag.service.timeout:60000}")
-    private int timeout;
+    private int readTimeout;
+
+    @Value("${rag.service.http.connect-timeout:5000}")
+    private int connectTimeout;
+
+    @Value("${rag.service.http.pool-acquire-timeout:5000}")
+    private int poolAcquireTimeout;
+
+    @Value("${rag.service.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${rag.service.http.max-connections-per-route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${rag.service.http.keep-alive:30000}")
+    private int keepAlive;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager ragConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Keep-alive client shared by all RAG calls. Content compression is on by default,
+     * so requests advertise gzip/deflate and responses are decoded transparently.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient ragHttpClient(PoolingHttpClientConnectionManager ragConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeout))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAlive))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(ragConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAlive))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient ragHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(ragHttpClient));
+    }
 
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(timeout);
-        factory.setReadTimeout(timeout);
-        
-        return new RestTemplate(factory);
+    public MeterBinder ragConnectionPoolMetrics(PoolingHttpClientConnectionManager ragConnectionManager) {
+        return registry -> {
+            registerPoolGauge(registry, ragConnectionManager, "leased", PoolStats::getLeased);
+            registerPoolGauge(registry, ragConnectionManager, "pending", PoolStats::getPending);
+            registerPoolGauge(registry, ragConnectionManager, "available", PoolStats::getAvailable);
+            registerPoolGauge(registry, ragConnectionManager, "max", PoolStats::getMax);
+        };
+    }
+
+    private void registerPoolGauge(MeterRegistry registry,
+                                   PoolingHttpClientConnectionManager manager, String name,
+                                   ToIntFunction<PoolStats> stat) {
+        Gauge.builder("rag.http.pool." + name, manager, m -> stat.applyAsInt(m.getTotalStats()))
+                .description("RAG service HTTP connection pool: " + name + " connections")
+                .register(registry);
     }
 }
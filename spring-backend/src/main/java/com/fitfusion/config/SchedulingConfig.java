@@ -0,0 +1,13 @@
+package com.fitfusion.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} maintenance jobs (rollups, retention). They run on Boot's
+ * auto-configured task scheduler, sized by {@code spring.task.scheduling.pool.size}.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,9 +1,14 @@
 package com.fitfusion.config;
 
+import com.fitfusion.security.BoundedPasswordEncoder;
 import com.fitfusion.security.JwtRequestFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -34,7 +39,11 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses (SSE) complete on an async dispatch; the original request was authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**", "/actuator/health").permitAll()
+                        // Metrics, RAG state and runtime log-level changes are for admins only
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -56,9 +65,17 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * BCrypt at the configured cost, run on the bounded hashing executor. Stored hashes with a
+     * lower cost are upgraded on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ThreadPoolTaskExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry,
+                                           @Value("${auth.password.bcrypt-strength:10}") int strength,
+                                           @Value("${auth.password.max-wait-ms:5000}") long maxWaitMs) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashingExecutor,
+                maxWaitMs, meterRegistry);
     }
 
     @Bean
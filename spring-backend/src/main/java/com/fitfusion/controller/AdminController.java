@@ -1,17 +1,26 @@
 package com.fitfusion.controller;
 
+import com.fitfusion.entity.CatalogTombstone;
 import com.fitfusion.entity.Exercise;
 import com.fitfusion.entity.FoodItem;
+import com.fitfusion.entity.RagLatencyRollup;
 import com.fitfusion.entity.User;
+import com.fitfusion.repository.CatalogTombstoneRepository;
 import com.fitfusion.repository.ExerciseRepository;
 import com.fitfusion.repository.FoodItemRepository;
 import com.fitfusion.repository.UserRepository;
 import com.fitfusion.repository.PlanBundleRepository;
 import com.fitfusion.repository.WorkoutCompletionRepository;
+import com.fitfusion.security.AuthPrincipalService;
+import com.fitfusion.service.ActivityRollupChecker;
+import com.fitfusion.service.PlanCacheService;
+import com.fitfusion.service.RagLatencyRollupService;
+import com.fitfusion.service.RagReindexScheduler;
 import com.fitfusion.service.RagClientService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -26,10 +35,16 @@ public class AdminController {
 
     private final ExerciseRepository exerciseRepository;
     private final FoodItemRepository foodItemRepository;
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
     private final RagClientService ragClientService;
     private final UserRepository userRepository;
     private final PlanBundleRepository planBundleRepository;
     private final WorkoutCompletionRepository workoutCompletionRepository;
+    private final PlanCacheService planCacheService;
+    private final RagLatencyRollupService ragLatencyRollupService;
+    private final RagReindexScheduler ragReindexScheduler;
+    private final AuthPrincipalService authPrincipalService;
+    private final ActivityRollupChecker activityRollupChecker;
 
     // Exercise Management
     @GetMapping("/exercises")
@@ -40,16 +55,14 @@ public class AdminController {
     @PostMapping("/exercises")
     public ResponseEntity<Exercise> createExercise(@RequestBody Exercise exercise) {
         Exercise saved = exerciseRepository.save(exercise);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.ok(saved);
     }
 
     @PostMapping("/exercises/bulk")
     public ResponseEntity<Map<String, Object>> createExercisesBulk(@RequestBody List<Exercise> exercises) {
         List<Exercise> savedExercises = exerciseRepository.saveAll(exercises);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.ok(Map.of(
                 "message", "Exercises created successfully",
                 "count", savedExercises.size(),
@@ -60,16 +73,16 @@ public class AdminController {
     public ResponseEntity<Exercise> updateExercise(@PathVariable Long id, @RequestBody Exercise exercise) {
         exercise.setId(id);
         Exercise updated = exerciseRepository.save(exercise);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.ok(updated);
     }
 
     @DeleteMapping("/exercises/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteExercise(@PathVariable Long id) {
         exerciseRepository.deleteById(id);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        catalogTombstoneRepository.save(new CatalogTombstone(CatalogTombstone.Source.exercise, id));
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.noContent().build();
     }
 
@@ -82,16 +95,14 @@ public class AdminController {
     @PostMapping("/food-items")
     public ResponseEntity<FoodItem> createFoodItem(@RequestBody FoodItem foodItem) {
         FoodItem saved = foodItemRepository.save(foodItem);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.ok(saved);
     }
 
     @PostMapping("/food-items/bulk")
     public ResponseEntity<Map<String, Object>> createFoodItemsBulk(@RequestBody List<FoodItem> foodItems) {
         List<FoodItem> savedFoodItems = foodItemRepository.saveAll(foodItems);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.ok(Map.of(
                 "message", "Food items created successfully",
                 "count", savedFoodItems.size(),
@@ -102,23 +113,25 @@ public class AdminController {
     public ResponseEntity<FoodItem> updateFoodItem(@PathVariable Long id, @RequestBody FoodItem foodItem) {
         foodItem.setId(id);
         FoodItem updated = foodItemRepository.save(foodItem);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.ok(updated);
     }
 
     @DeleteMapping("/food-items/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteFoodItem(@PathVariable Long id) {
         foodItemRepository.deleteById(id);
-        // Trigger async reindex
-        triggerAsyncReindex();
+        catalogTombstoneRepository.save(new CatalogTombstone(CatalogTombstone.Source.food_item, id));
+        ragReindexScheduler.requestReindex();
         return ResponseEntity.noContent().build();
     }
 
     // RAG Management
     @GetMapping("/rag/status")
     public ResponseEntity<Map<String, Object>> getRagStatus() {
-        return ResponseEntity.ok(ragClientService.getStatus());
+        Map<String, Object> status = new HashMap<>(ragClientService.getStatus());
+        status.put("reindex", ragReindexScheduler.status());
+        return ResponseEntity.ok(status);
     }
 
     @PostMapping("/rag/reindex")
@@ -127,7 +140,27 @@ public class AdminController {
         if (request == null) {
             request = Map.of("mode", "full");
         }
-        return ResponseEntity.ok(ragClientService.triggerReindex(request));
+        Map<String, Object> result = ragClientService.triggerReindex(request);
+        planCacheService.invalidateAll();
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/rag/latency")
+    public ResponseEntity<List<RagLatencyRollup>> getRagLatency(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(required = false) String model) {
+        return ResponseEntity.ok(ragLatencyRollupService.getRollups(hours, model));
+    }
+
+    // Daily activity rollups (user_activity_daily) against workout_completion
+    @GetMapping("/activity-rollups/check")
+    public ResponseEntity<Map<String, Object>> getLastActivityRollupCheck() {
+        return ResponseEntity.ok(activityRollupChecker.getLastResult());
+    }
+
+    @PostMapping("/activity-rollups/check")
+    public ResponseEntity<Map<String, Object>> checkActivityRollups() {
+        return ResponseEntity.ok(activityRollupChecker.check());
     }
 
     // Dashboard Statistics
@@ -171,12 +204,16 @@ public class AdminController {
         String roleStr = request.get("role");
         User.Role role = User.Role.valueOf(roleStr);
         user.setRole(role);
-        return ResponseEntity.ok(userRepository.save(user));
+        User saved = userRepository.save(user);
+        // Tokens already issued carry the old role claim
+        authPrincipalService.invalidateUser(id);
+        return ResponseEntity.ok(saved);
     }
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userRepository.deleteById(id);
+        authPrincipalService.invalidateUser(id);
         return ResponseEntity.noContent().build();
     }
 
@@ -202,20 +239,4 @@ public class AdminController {
         
         return ResponseEntity.ok(engagement);
     }
-
-    /**
-     * Trigger async reindex after data changes
-     * Runs in background to avoid blocking the response
-     */
-    private void triggerAsyncReindex() {
-        new Thread(() -> {
-            try {
-                Thread.sleep(2000); // Wait 2 seconds for DB transaction to complete
-                ragClientService.triggerReindex(Map.of("mode", "full"));
-                System.out.println("✓ RAG reindex triggered automatically");
-            } catch (Exception e) {
-                System.err.println("⚠ Failed to trigger automatic reindex: " + e.getMessage());
-            }
-        }).start();
-    }
 }
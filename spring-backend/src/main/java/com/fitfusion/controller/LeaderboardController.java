@@ -0,0 +1,29 @@
+package com.fitfusion.controller;
+
+import com.fitfusion.security.AuthenticatedUser;
+import com.fitfusion.security.CurrentUser;
+import com.fitfusion.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/leaderboards")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping("/{period}")
+    public ResponseEntity<Map<String, Object>> getLeaderboard(
+            @PathVariable LeaderboardService.Period period,
+            @RequestParam(defaultValue = "calories") LeaderboardService.Metric metric,
+            @RequestParam(defaultValue = "10") int limit,
+            @CurrentUser AuthenticatedUser user) {
+
+        Long viewerId = user != null ? user.getUserId() : null;
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(period, metric, limit, viewerId));
+    }
+}
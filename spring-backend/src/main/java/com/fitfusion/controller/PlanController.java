@@ -1,38 +1,71 @@
 package com.fitfusion.controller;
 
+import com.fitfusion.dto.PlanGenerationJob;
 import com.fitfusion.entity.PlanBundle;
+import com.fitfusion.service.PlanGenerationJobService;
 import com.fitfusion.service.PlanService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
+@Slf4j
 public class PlanController {
 
     private final PlanService planService;
+    private final PlanGenerationJobService planGenerationJobService;
 
+    @PreAuthorize("@userAccess.isSelf(#id)")
     @PostMapping("/{id}/generate-plan")
-    public ResponseEntity<Map<String, Object>> generatePlan(@PathVariable Long id) {
-        Map<String, Object> plan = planService.generatePlan(id);
+    public ResponseEntity<Map<String, Object>> generatePlan(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestParam(defaultValue = "false") boolean bypassCache) {
+        if (async) {
+            PlanGenerationJob job = planGenerationJobService.submit(id, bypassCache);
+            return ResponseEntity.accepted().body(planGenerationJobService.describe(job));
+        }
+        Map<String, Object> plan = planService.generatePlan(id, bypassCache);
         return ResponseEntity.ok(plan);
     }
 
+    @PreAuthorize("@userAccess.isSelf(#id)")
+    @PostMapping(value = "/{id}/generate-plan/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPlan(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean bypassCache) {
+        return planGenerationJobService.stream(id, bypassCache);
+    }
+
+    @PreAuthorize("@userAccess.isSelf(#id)")
+    @GetMapping("/{id}/generation-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getGenerationJob(@PathVariable Long id, @PathVariable String jobId) {
+        PlanGenerationJob job = planGenerationJobService.getJob(id, jobId);
+        return ResponseEntity.ok(planGenerationJobService.describe(job));
+    }
+
+    @PreAuthorize("@userAccess.isSelf(#id)")
     @GetMapping("/{id}/plans")
-    public ResponseEntity<List<PlanBundle>> getUserPlans(@PathVariable Long id) {
-        List<PlanBundle> plans = planService.getUserPlans(id);
-        System.out.println("🔍 API: Returning plans for user " + id + ": " + plans);
-        if (!plans.isEmpty()) {
-            System.out.println("🔍 API: First plan ID: " + plans.get(0).getId());
-        }
-        return ResponseEntity.ok(plans);
+    public ResponseEntity<Map<String, Object>> getUserPlans(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int limit) {
+        Map<String, Object> page = planService.getUserPlans(id, before, limit);
+        log.debug("Returning plan history page for user {} (before={})", id, before);
+        return ResponseEntity.ok(page);
     }
 
     @GetMapping("/plans/{bundleId}")
+    @PostAuthorize("@userAccess.isSelf(returnObject.body.userId)")
     public ResponseEntity<PlanBundle> getPlanBundle(@PathVariable Long bundleId) {
         PlanBundle bundle = planService.getPlanBundle(bundleId);
         return ResponseEntity.ok(bundle);
@@ -4,6 +4,7 @@ import com.fitfusion.entity.UserPreferencesTemplate;
 import com.fitfusion.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -11,6 +12,7 @@ import java.util.Map;
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
+@PreAuthorize("@userAccess.isSelf(#id)")
 public class UserController {
 
     private final UserService userService;
@@ -1,62 +1,57 @@
 package com.fitfusion.controller;
 
+import com.fitfusion.dto.BulkWorkoutCompletionRequest;
+import com.fitfusion.dto.BulkWorkoutCompletionResponse;
 import com.fitfusion.dto.UserStatsResponse;
 import com.fitfusion.dto.WorkoutCompletionRequest;
 import com.fitfusion.dto.WorkoutCompletionResponse;
-import com.fitfusion.entity.User;
-import com.fitfusion.repository.UserRepository;
+import com.fitfusion.service.ActivityHeatmapService;
+import com.fitfusion.service.PlanProgressService;
 import com.fitfusion.service.WorkoutCompletionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
+// Users may only read and change their own completions
+@PreAuthorize("@userAccess.isSelf(#userId)")
 public class WorkoutCompletionController {
     
     private final WorkoutCompletionService completionService;
-    private final UserRepository userRepository;
-    
-    private Long getAuthenticatedUserId(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
-    }
+    private final PlanProgressService planProgressService;
+    private final ActivityHeatmapService activityHeatmapService;
     
     @PostMapping("/users/{userId}/workout-completions")
     public ResponseEntity<WorkoutCompletionResponse> markWorkoutComplete(
             @PathVariable Long userId,
-            @RequestBody WorkoutCompletionRequest request,
-            Authentication authentication) {
-        
-        // Verify user can only mark their own workouts
-        Long authenticatedUserId = getAuthenticatedUserId(authentication);
-        if (!authenticatedUserId.equals(userId)) {
-            return ResponseEntity.status(403).build();
-        }
+            @RequestBody WorkoutCompletionRequest request) {
         
         WorkoutCompletionResponse response = completionService.markWorkoutComplete(userId, request);
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/users/{userId}/workout-completions/bulk")
+    public ResponseEntity<BulkWorkoutCompletionResponse> markWorkoutsComplete(
+            @PathVariable Long userId,
+            @RequestBody BulkWorkoutCompletionRequest request) {
+        
+        BulkWorkoutCompletionResponse response = completionService.markWorkoutsComplete(userId, request);
+        return ResponseEntity.ok(response);
+    }
+    
     @DeleteMapping("/users/{userId}/workout-completions")
     public ResponseEntity<Void> unmarkWorkoutComplete(
             @PathVariable Long userId,
             @RequestParam Long planBundleId,
             @RequestParam Integer weekNumber,
             @RequestParam Integer dayNumber,
-            @RequestParam String exerciseName,
-            Authentication authentication) {
-        
-        Long authenticatedUserId = getAuthenticatedUserId(authentication);
-        if (!authenticatedUserId.equals(userId)) {
-            return ResponseEntity.status(403).build();
-        }
+            @RequestParam String exerciseName) {
         
         completionService.unmarkWorkoutComplete(userId, planBundleId, weekNumber, dayNumber, exerciseName);
         return ResponseEntity.noContent().build();
@@ -65,13 +60,7 @@ public class WorkoutCompletionController {
     @GetMapping("/users/{userId}/workout-completions")
     public ResponseEntity<List<WorkoutCompletionResponse>> getUserPlanCompletions(
             @PathVariable Long userId,
-            @RequestParam Long planBundleId,
-            Authentication authentication) {
-        
-        Long authenticatedUserId = getAuthenticatedUserId(authentication);
-        if (!authenticatedUserId.equals(userId)) {
-            return ResponseEntity.status(403).build();
-        }
+            @RequestParam Long planBundleId) {
         
         List<WorkoutCompletionResponse> completions = completionService.getUserPlanCompletions(userId, planBundleId);
         return ResponseEntity.ok(completions);
@@ -81,30 +70,46 @@ public class WorkoutCompletionController {
     public ResponseEntity<List<WorkoutCompletionResponse>> getUserWeekCompletions(
             @PathVariable Long userId,
             @RequestParam Long planBundleId,
-            @RequestParam Integer weekNumber,
-            Authentication authentication) {
-        
-        Long authenticatedUserId = getAuthenticatedUserId(authentication);
-        if (!authenticatedUserId.equals(userId)) {
-            return ResponseEntity.status(403).build();
-        }
+            @RequestParam Integer weekNumber) {
         
         List<WorkoutCompletionResponse> completions = completionService.getUserWeekCompletions(userId, planBundleId, weekNumber);
         return ResponseEntity.ok(completions);
     }
     
+    @GetMapping("/users/{userId}/plans/{planBundleId}/progress")
+    public ResponseEntity<Map<String, Object>> getPlanProgress(
+            @PathVariable Long userId,
+            @PathVariable Long planBundleId) {
+        
+        return ResponseEntity.ok(planProgressService.getProgress(userId, planBundleId));
+    }
+    
+    @GetMapping("/users/{userId}/plans/{planBundleId}/progress/check")
+    public ResponseEntity<Map<String, Object>> isExerciseCompleted(
+            @PathVariable Long userId,
+            @PathVariable Long planBundleId,
+            @RequestParam Integer weekNumber,
+            @RequestParam Integer dayNumber,
+            @RequestParam String exerciseName) {
+        
+        boolean completed = planProgressService.isCompleted(userId, planBundleId, weekNumber, dayNumber, exerciseName);
+        return ResponseEntity.ok(Map.of("completed", completed));
+    }
+    
     @GetMapping("/users/{userId}/stats")
     public ResponseEntity<UserStatsResponse> getUserStats(
             @PathVariable Long userId,
-            @RequestParam(defaultValue = "week") String period,
-            Authentication authentication) {
-        
-        Long authenticatedUserId = getAuthenticatedUserId(authentication);
-        if (!authenticatedUserId.equals(userId)) {
-            return ResponseEntity.status(403).build();
-        }
+            @RequestParam(defaultValue = "week") String period) {
         
         UserStatsResponse stats = completionService.getUserStats(userId, period);
         return ResponseEntity.ok(stats);
     }
+    
+    @GetMapping("/users/{userId}/activity/heatmap")
+    public ResponseEntity<Map<String, Object>> getActivityHeatmap(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "365") int days) {
+        
+        return ResponseEntity.ok(activityHeatmapService.getHeatmap(userId, days));
+    }
 }
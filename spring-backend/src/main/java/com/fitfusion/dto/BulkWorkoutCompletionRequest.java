@@ -0,0 +1,19 @@
+package com.fitfusion.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Marks several exercises of one plan at once. With {@code markFromPlan} every exercise the
+ * plan lists for {@code weekNumber} (and {@code dayNumber}, when given) is marked; explicit
+ * {@code entries}, which may carry stats such as calories, are applied on top.
+ */
+@Data
+public class BulkWorkoutCompletionRequest {
+    private Long planBundleId;
+    private boolean markFromPlan;
+    private Integer weekNumber;
+    private Integer dayNumber;
+    private List<WorkoutCompletionRequest> entries;
+}
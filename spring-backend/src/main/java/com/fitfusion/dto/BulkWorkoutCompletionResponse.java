@@ -0,0 +1,28 @@
+package com.fitfusion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkWorkoutCompletionResponse {
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer weekNumber;
+        private Integer dayNumber;
+        private String exerciseName;
+        private String status;  // created, updated or invalid
+        private String message;
+        private WorkoutCompletionResponse completion;
+    }
+}
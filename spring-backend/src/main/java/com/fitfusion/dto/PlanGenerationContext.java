@@ -0,0 +1,20 @@
+package com.fitfusion.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Everything needed to call the RAG service and persist the result,
+ * captured up front so the LLM round trip runs without a DB connection.
+ */
+@Data
+@AllArgsConstructor
+public class PlanGenerationContext {
+    private Long userId;
+    private Map<String, Object> preferences;
+    private Integer durationWeeks;
+    private String preferencesHash;
+    private boolean bypassCache;
+}
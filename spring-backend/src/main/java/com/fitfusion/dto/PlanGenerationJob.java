@@ -0,0 +1,36 @@
+package com.fitfusion.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Getter
+@Setter
+public class PlanGenerationJob {
+
+    private final String jobId;
+    private final Long userId;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.queued;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile Long planBundleId;
+    private volatile Map<String, Object> result;
+    private volatile String error;
+
+    public PlanGenerationJob(String jobId, Long userId) {
+        this.jobId = jobId;
+        this.userId = userId;
+    }
+
+    public boolean isFinished() {
+        return status == Status.completed || status == Status.failed;
+    }
+
+    public enum Status {
+        queued, running, completed, failed
+    }
+}
@@ -0,0 +1,33 @@
+package com.fitfusion.dto;
+
+import com.fitfusion.entity.PlanBundle;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's plan history: the bundle's scalar columns plus the headline numbers
+ * of its workout and diet plans, without the plan JSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanSummaryResponse {
+    private Long id;
+    private PlanBundle.PlanStatus status;
+    private LocalDate startDate;
+    private LocalDate allowedChangeDeadline;
+    private LocalDate completedAt;
+    private LocalDateTime createdAt;
+    private Long workoutPlanId;
+    private Integer totalWeeks;
+    private Integer frequencyPerWeek;
+    private String workoutSummary;
+    private Long dietPlanId;
+    private Integer totalDailyCalories;
+    private Integer totalDailyProtein;
+    private String dietSummary;
+}
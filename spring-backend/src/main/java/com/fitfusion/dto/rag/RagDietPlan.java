@@ -0,0 +1,34 @@
+package com.fitfusion.dto.rag;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RagDietPlan(
+        @JsonProperty("total_daily_calories") Double totalDailyCalories,
+        @JsonProperty("total_daily_protein") Double totalDailyProtein,
+        @JsonProperty("summary") String summary,
+        @JsonProperty("meals") Map<String, List<MealItem>> meals,
+        @JsonProperty("daily_totals") Totals dailyTotals) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record MealItem(
+            @JsonProperty("food_name") String foodName,
+            @JsonProperty("serving_size") String servingSize,
+            @JsonProperty("calories") Double calories,
+            @JsonProperty("protein") Double protein,
+            @JsonProperty("carbs") Double carbs,
+            @JsonProperty("fats") Double fats) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Totals(
+            @JsonProperty("calories") Double calories,
+            @JsonProperty("protein") Double protein,
+            @JsonProperty("carbs") Double carbs,
+            @JsonProperty("fats") Double fats) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.fitfusion.dto.rag;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RagMetadata(
+        @JsonProperty("duration_ms") Integer durationMs,
+        @JsonProperty("user_id") Long userId,
+        @JsonProperty("generated_at") String generatedAt,
+        @JsonProperty("llm_model") String llmModel,
+        @JsonProperty("embedding_model") String embeddingModel,
+        @JsonProperty("cache_hit") Boolean cacheHit) {
+
+    public RagMetadata withCacheHit(boolean hit) {
+        return new RagMetadata(durationMs, userId, generatedAt, llmModel, embeddingModel, hit);
+    }
+}
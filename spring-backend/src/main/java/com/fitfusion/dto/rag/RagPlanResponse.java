@@ -0,0 +1,15 @@
+package com.fitfusion.dto.rag;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Fully typed view of the RAG service /generate response.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RagPlanResponse(
+        @JsonProperty("status") String status,
+        @JsonProperty("workout_plan") RagWorkoutPlan workoutPlan,
+        @JsonProperty("diet_plan") RagDietPlan dietPlan,
+        @JsonProperty("metadata") RagMetadata metadata) {
+}
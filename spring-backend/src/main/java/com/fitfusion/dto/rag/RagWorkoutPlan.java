@@ -0,0 +1,37 @@
+package com.fitfusion.dto.rag;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record RagWorkoutPlan(
+        @JsonProperty("total_weeks") Integer totalWeeks,
+        @JsonProperty("frequency_per_week") Integer frequencyPerWeek,
+        @JsonProperty("summary") String summary,
+        @JsonProperty("weeks") List<Week> weeks) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Week(
+            @JsonProperty("week_number") Integer weekNumber,
+            @JsonProperty("days") List<Day> days) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Day(
+            @JsonProperty("day_number") Integer dayNumber,
+            @JsonProperty("focus") String focus,
+            @JsonProperty("exercises") List<Exercise> exercises) {
+    }
+
+    /** {@code reps} is either a count or a duration such as "30 seconds". */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Exercise(
+            @JsonProperty("exercise_name") String exerciseName,
+            @JsonProperty("sets") Integer sets,
+            @JsonProperty("reps") String reps,
+            @JsonProperty("rest_seconds") Integer restSeconds,
+            @JsonProperty("notes") String notes) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.fitfusion.dto.rag;
+
+/**
+ * RAG /generate response with the plan bodies kept as the JSON text received, so they can be
+ * persisted and returned without being rebuilt as maps. Only the scalar fields the entities
+ * need are pulled out during parsing.
+ */
+public record RawPlanResponse(
+        String workoutPlanJson,
+        Integer totalWeeks,
+        Integer frequencyPerWeek,
+        String workoutSummary,
+        String dietPlanJson,
+        Integer totalDailyCalories,
+        Integer totalDailyProtein,
+        String dietSummary,
+        RagMetadata metadata) {
+
+    public RawPlanResponse withMetadata(RagMetadata newMetadata) {
+        return new RawPlanResponse(workoutPlanJson, totalWeeks, frequencyPerWeek, workoutSummary,
+                dietPlanJson, totalDailyCalories, totalDailyProtein, dietSummary, newMetadata);
+    }
+}
@@ -0,0 +1,47 @@
+package com.fitfusion.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Records a deleted exercise or food item until the next incremental reindex has removed
+ * it from the RAG index.
+ */
+@Entity
+@Table(name = "catalog_tombstone")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogTombstone {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Source source;
+    
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    
+    @Column(name = "deleted_at", nullable = false, updatable = false)
+    private LocalDateTime deletedAt;
+    
+    public CatalogTombstone(Source source, Long itemId) {
+        this.source = source;
+        this.itemId = itemId;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        deletedAt = LocalDateTime.now();
+    }
+    
+    public enum Source {
+        exercise, food_item
+    }
+}
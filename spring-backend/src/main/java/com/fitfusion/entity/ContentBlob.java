@@ -0,0 +1,65 @@
+package com.fitfusion.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Gzip-compressed JSON document keyed by the SHA-256 of its text. Plans and preference
+ * snapshots reference blobs by hash, so identical content is stored once however many
+ * bundles point at it. Rows are immutable and written by {@code ContentBlobService}.
+ */
+@Entity
+@Table(name = "content_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @ToString.Exclude
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] data;
+
+    @Column(name = "original_size", nullable = false)
+    private Integer originalSize;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Decompressed text, filled on first read
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private String content;
+
+    public String getContent() {
+        if (content == null && data != null) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+                content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupt content blob " + hash, e);
+            }
+        }
+        return content;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,13 +1,13 @@
 package com.fitfusion.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Entity
 @Table(name = "diet_plan")
@@ -17,12 +17,14 @@ import java.util.Map;
 public class DietPlan {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "plan_json", columnDefinition = "JSON", nullable = false)
-    private Map<String, Object> planJson;
+    // JSON text received from the RAG service, stored once per distinct plan
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "plan_hash")
+    private ContentBlob planBlob;
     
     @Column(name = "total_daily_calories")
     private Integer totalDailyCalories;
@@ -36,6 +38,12 @@ public class DietPlan {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    @JsonRawValue
+    @JsonProperty("planJson")
+    public String getPlanJson() {
+        return planBlob != null ? planBlob.getContent() : null;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
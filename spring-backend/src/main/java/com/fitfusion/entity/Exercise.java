@@ -17,7 +17,7 @@ import java.util.List;
 public class Exercise {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(nullable = false, length = 150)
@@ -17,7 +17,7 @@ import java.util.Map;
 public class FoodItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(nullable = false, length = 150)
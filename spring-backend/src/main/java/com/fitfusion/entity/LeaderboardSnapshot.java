@@ -0,0 +1,34 @@
+package com.fitfusion.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Last saved state of one leaderboard period, so a restart can resume from it instead of
+ * re-aggregating. {@code scores} is a JSON array of [userId, workouts, calories, minutes].
+ */
+@Entity
+@Table(name = "leaderboard_snapshot")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardSnapshot {
+
+    @Id
+    @Column(length = 20)
+    private String period;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
+    private String scores;
+}
@@ -1,32 +1,35 @@
 package com.fitfusion.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Entity
-@Table(name = "plan_bundle")
+// Plan history pages walk (user_id, id) newest first
+@Table(name = "plan_bundle", indexes = @Index(name = "idx_plan_bundle_user_id", columnList = "user_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PlanBundle {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(name = "user_id", nullable = false)
     private Long userId;
     
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "preferences_snapshot", columnDefinition = "JSON", nullable = false)
-    private Map<String, Object> preferencesSnapshot;
+    // Identical snapshots across bundles and users share one blob
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "preferences_hash")
+    private ContentBlob preferencesBlob;
     
     @Column(name = "workout_plan_id")
     private Long workoutPlanId;
@@ -34,11 +37,12 @@ public class PlanBundle {
     @Column(name = "diet_plan_id")
     private Long dietPlanId;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    // Plan bodies are large; only the single-bundle endpoint fetches them (PlanBundleRepository.findWithPlansById)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "workout_plan_id", insertable = false, updatable = false)
     private WorkoutPlan workoutPlan;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "diet_plan_id", insertable = false, updatable = false)
     private DietPlan dietPlan;
     
@@ -58,6 +62,12 @@ public class PlanBundle {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
+    @JsonRawValue
+    @JsonProperty("preferencesSnapshot")
+    public String getPreferencesSnapshot() {
+        return preferencesBlob != null ? preferencesBlob.getContent() : null;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,34 @@
+package com.fitfusion.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Single-row watermark of what the RAG index already contains: catalog rows updated
+ * before {@code indexedThrough}. {@code lastTombstoneId} is the highest tombstone consumed
+ * so far, kept for diagnostics; tombstones themselves are deleted once indexed.
+ */
+@Entity
+@Table(name = "rag_index_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RagIndexState {
+    
+    public static final long SINGLETON_ID = 1L;
+    
+    @Id
+    private Long id = SINGLETON_ID;
+    
+    @Column(name = "indexed_through", nullable = false)
+    private LocalDateTime indexedThrough;
+    
+    @Column(name = "last_tombstone_id", nullable = false)
+    private Long lastTombstoneId = 0L;
+    
+    @Column(name = "last_full_reindex_at")
+    private LocalDateTime lastFullReindexAt;
+}
@@ -0,0 +1,58 @@
+package com.fitfusion.entity;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Per-model, per-hour latency summary built from rag_logs, so raw rows can be pruned
+ * without losing history.
+ */
+@Entity
+@Table(name = "rag_latency_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"bucket_start", "model"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RagLatencyRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(nullable = false, length = 100)
+    private String model;
+    
+    @Column(name = "request_count", nullable = false)
+    private Integer requestCount;
+    
+    @Column(name = "error_count", nullable = false)
+    private Integer errorCount;
+    
+    @Column(name = "p50_ms")
+    private Integer p50Ms;
+    
+    @Column(name = "p95_ms")
+    private Integer p95Ms;
+    
+    @Column(name = "p99_ms")
+    private Integer p99Ms;
+    
+    @Column(name = "max_ms")
+    private Integer maxMs;
+    
+    // Counts per latency bucket, keyed by upper bound in ms ("+Inf" for the overflow bucket)
+    @JsonRawValue
+    @Column(columnDefinition = "JSON")
+    private String histogram;
+    
+    public double getErrorRate() {
+        return requestCount > 0 ? (double) errorCount / requestCount : 0;
+    }
+}
@@ -1,16 +1,14 @@
 package com.fitfusion.entity;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
-import java.util.Map;
 
 @Entity
-@Table(name = "rag_logs")
+@Table(name = "rag_logs", indexes = @Index(name = "idx_rag_logs_timestamp", columnList = "timestamp"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,13 +24,13 @@ public class RagLog {
     @Column(name = "plan_bundle_id")
     private Long planBundleId;
     
-    @JdbcTypeCode(SqlTypes.JSON)
+    @JsonRawValue
     @Column(name = "request_payload", columnDefinition = "JSON")
-    private Map<String, Object> requestPayload;
+    private String requestPayload;
     
-    @JdbcTypeCode(SqlTypes.JSON)
+    @JsonRawValue
     @Column(name = "response_payload", columnDefinition = "JSON")
-    private Map<String, Object> responsePayload;
+    private String responsePayload;
     
     @Column(name = "model_used", length = 100)
     private String modelUsed;
@@ -43,6 +41,10 @@ public class RagLog {
     @Column(name = "duration_ms")
     private Integer durationMs;
     
+    // success or error; rows written before this column existed are successes
+    @Column(length = 20)
+    private String status;
+    
     @Column(nullable = false, updatable = false)
     private LocalDateTime timestamp;
     
@@ -0,0 +1,27 @@
+package com.fitfusion.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Single-row cursor of the RAG latency rollup: every hour before {@code rolledUpThrough}
+ * has been rolled up, whether or not it had any log rows.
+ */
+@Entity
+@Table(name = "rag_rollup_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RagRollupState {
+    
+    public static final long SINGLETON_ID = 1L;
+    
+    @Id
+    private Long id = SINGLETON_ID;
+    
+    @Column(name = "rolled_up_through", nullable = false)
+    private LocalDateTime rolledUpThrough;
+}
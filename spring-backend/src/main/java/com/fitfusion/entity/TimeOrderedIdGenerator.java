@@ -0,0 +1,62 @@
+package com.fitfusion.entity;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+
+/**
+ * 53-bit ids: milliseconds since 2024-01-01 UTC, then a node number, then a per-millisecond
+ * sequence. They sort by creation time, stay exact as JavaScript numbers, and start far above
+ * the AUTO_INCREMENT values already in the tables.
+ *
+ * <p>Each application instance needs its own {@code fitfusion.id.node-id} (0-31).
+ */
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+
+    public static final String NODE_ID_SETTING = "fitfusion.id.node-id";
+
+    private static final long EPOCH_MILLIS = 1704067200000L;  // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    // Shared by every entity so one process never hands out the same id twice
+    private static final Object LOCK = new Object();
+    private static long lastMillis = -1;
+    private static long sequence;
+
+    private final long nodeId;
+
+    public TimeOrderedIdGenerator(TimeOrderedId config, Member member, CustomIdGeneratorCreationContext context) {
+        ConfigurationService settings = context.getServiceRegistry().getService(ConfigurationService.class);
+        this.nodeId = settings.getSetting(NODE_ID_SETTING, StandardConverters.INTEGER, 0);
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(NODE_ID_SETTING + " must be between 0 and " + MAX_NODE_ID);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return nextId(nodeId);
+    }
+
+    static long nextId(long nodeId) {
+        synchronized (LOCK) {
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            if (now > lastMillis) {
+                lastMillis = now;
+                sequence = 0;
+            } else if (++sequence > MAX_SEQUENCE) {
+                // Sequence exhausted (or the clock stepped back): borrow the next millisecond
+                lastMillis++;
+                sequence = 0;
+            }
+            return (lastMillis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+        }
+    }
+}
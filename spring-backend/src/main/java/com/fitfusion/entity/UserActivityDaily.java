@@ -0,0 +1,48 @@
+package com.fitfusion.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Completions per user and day (the date of completed_at). Kept in step with workout_completion
+ * by {@link com.fitfusion.service.ActivityRollupService} in the same transaction as each write.
+ */
+@Entity
+// Leaderboards sum a period's days across all users
+@Table(name = "user_activity_daily", indexes = @Index(name = "idx_user_activity_daily_date", columnList = "activity_date"))
+@IdClass(UserActivityDaily.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityDaily {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "activity_date")
+    private LocalDate activityDate;
+
+    @Column(nullable = false)
+    private Integer workouts;
+
+    @Column(nullable = false)
+    private Long calories;
+
+    @Column(nullable = false)
+    private Long minutes;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate activityDate;
+    }
+}
@@ -17,7 +17,7 @@ import java.util.List;
 public class UserPreferencesTemplate {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -0,0 +1,33 @@
+package com.fitfusion.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback async appender that counts the events it drops. Events are handed to a bounded
+ * queue drained by one worker thread; with {@code neverBlock} a full queue drops the event
+ * instead of stalling the logging thread, and past the discarding threshold TRACE/DEBUG/INFO
+ * events are shed first.
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    public static long droppedEvents() {
+        return DROPPED.get();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        boolean discardable = event.getLevel().toInt() <= Level.INFO_INT;
+        if ((remaining < getDiscardingThreshold() && discardable) || (remaining == 0 && isNeverBlock())) {
+            DROPPED.incrementAndGet();
+            return;
+        }
+        super.append(event);
+    }
+}
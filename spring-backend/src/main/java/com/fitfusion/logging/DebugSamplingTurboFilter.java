@@ -0,0 +1,47 @@
+package com.fitfusion.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets through only one in {@code rate} DEBUG/TRACE events from loggers under
+ * {@code loggerPrefix}, so chatty per-request debug logging stays affordable when enabled.
+ * WARN and above are never sampled, and neither are loggers under {@code excludedPrefix}
+ * (the auth trace logger, which an admin turns on to see every event).
+ */
+public class DebugSamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong counter = new AtomicLong();
+    private String loggerPrefix = "com.fitfusion";
+    private String excludedPrefix = "com.fitfusion.security.trace";
+    private int rate = 1;
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setExcludedPrefix(String excludedPrefix) {
+        this.excludedPrefix = excludedPrefix;
+    }
+
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (rate == 1 || level == null || level.toInt() > Level.DEBUG_INT
+                || !logger.getName().startsWith(loggerPrefix)
+                || (!excludedPrefix.isEmpty() && logger.getName().startsWith(excludedPrefix))
+                // Disabled events never reach an appender; don't let them use up the sample
+                || level.toInt() < logger.getEffectiveLevel().toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.incrementAndGet() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
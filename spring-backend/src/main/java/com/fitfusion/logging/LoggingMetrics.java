@@ -0,0 +1,20 @@
+package com.fitfusion.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes how many log events the async appender dropped because its queue was full.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("logging.events.dropped", this, metrics -> CountingAsyncAppender.droppedEvents())
+                .description("Log events dropped by the async appender")
+                .register(registry);
+    }
+}
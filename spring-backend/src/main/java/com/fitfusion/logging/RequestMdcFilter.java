@@ -0,0 +1,52 @@
+package com.fitfusion.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Puts a request id and the route into the logging MDC for the whole request (the JWT
+ * filter adds the user id once authenticated). The id is taken from an incoming
+ * X-Request-Id header when it is a plain token and echoed back on the response.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestMdcFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID = "requestId";
+    public static final String USER_ID = "userId";
+    public static final String ROUTE = "route";
+
+    private static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        // Anything else could forge log lines or response headers
+        if (requestId == null || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+            requestId = UUID.randomUUID().toString().substring(0, 8);
+        }
+        MDC.put(REQUEST_ID, requestId);
+        MDC.put(ROUTE, request.getMethod() + " " + request.getRequestURI());
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID);
+            MDC.remove(USER_ID);
+            MDC.remove(ROUTE);
+        }
+    }
+}
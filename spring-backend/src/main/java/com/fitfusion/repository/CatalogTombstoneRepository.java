@@ -0,0 +1,19 @@
+package com.fitfusion.repository;
+
+import com.fitfusion.entity.CatalogTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CatalogTombstoneRepository extends JpaRepository<CatalogTombstone, Long> {
+    List<CatalogTombstone> findAllByOrderByIdAsc();
+    
+    @Modifying
+    @Query("DELETE FROM CatalogTombstone t WHERE t.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,9 @@
+package com.fitfusion.repository;
+
+import com.fitfusion.entity.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+}
@@ -3,7 +3,9 @@ package com.fitfusion.repository;
 import com.fitfusion.entity.Exercise;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +17,7 @@ public interface ExerciseRepository extends JpaRepository<Exercise, Long> {
     
     @Query("SELECT e.muscleGroup, COUNT(e) FROM Exercise e GROUP BY e.muscleGroup")
     List<Object[]> countByMuscleGroup();
+    
+    @Query("SELECT e.id FROM Exercise e WHERE e.updatedAt >= :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
 }
@@ -2,11 +2,17 @@ package com.fitfusion.repository;
 
 import com.fitfusion.entity.FoodItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface FoodItemRepository extends JpaRepository<FoodItem, Long> {
     List<FoodItem> findByCategory(FoodItem.FoodCategory category);
     List<FoodItem> findByIsVeg(Boolean isVeg);
+    
+    @Query("SELECT f.id FROM FoodItem f WHERE f.updatedAt >= :since")
+    List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,9 @@
+package com.fitfusion.repository;
+
+import com.fitfusion.entity.LeaderboardSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaderboardSnapshotRepository extends JpaRepository<LeaderboardSnapshot, String> {
+}
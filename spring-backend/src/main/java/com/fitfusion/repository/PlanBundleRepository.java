@@ -1,19 +1,40 @@
 package com.fitfusion.repository;
 
+import com.fitfusion.dto.PlanSummaryResponse;
 import com.fitfusion.entity.PlanBundle;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PlanBundleRepository extends JpaRepository<PlanBundle, Long> {
-    List<PlanBundle> findByUserIdOrderByCreatedAtDesc(Long userId);
     Optional<PlanBundle> findByUserIdAndStatus(Long userId, PlanBundle.PlanStatus status);
     List<PlanBundle> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, PlanBundle.PlanStatus status);
     Optional<PlanBundle> findFirstByUserIdOrderByCreatedAtDesc(Long userId);
     List<PlanBundle> findAllByUserIdAndStatus(Long userId, PlanBundle.PlanStatus status);
+    Optional<PlanBundle> findByIdAndUserId(Long id, Long userId);
+    boolean existsByIdAndUserId(Long id, Long userId);
+    
+    // Bundle with its plan bodies and preferences snapshot, for the single-bundle endpoint
+    @EntityGraph(attributePaths = {"workoutPlan", "dietPlan", "preferencesBlob"})
+    Optional<PlanBundle> findWithPlansById(Long id);
+    
+    // Bundle with just its workout plan, to lay out progress slots
+    @EntityGraph(attributePaths = {"workoutPlan"})
+    Optional<PlanBundle> findWithWorkoutPlanById(Long id);
+    
+    // Plan history, newest first; ids are time-ordered, so "before" is a keyset cursor
+    @Query("SELECT new com.fitfusion.dto.PlanSummaryResponse(p.id, p.status, p.startDate, p.allowedChangeDeadline, " +
+           "p.completedAt, p.createdAt, p.workoutPlanId, w.totalWeeks, w.frequencyPerWeek, w.summary, " +
+           "p.dietPlanId, d.totalDailyCalories, d.totalDailyProtein, d.summary) " +
+           "FROM PlanBundle p LEFT JOIN p.workoutPlan w LEFT JOIN p.dietPlan d " +
+           "WHERE p.userId = :userId AND p.id < :before ORDER BY p.id DESC")
+    List<PlanSummaryResponse> findSummaries(@Param("userId") Long userId, @Param("before") Long before, Pageable page);
     
     @Query("SELECT COUNT(DISTINCT p.userId) FROM PlanBundle p")
     Long countDistinctUsers();
@@ -0,0 +1,14 @@
+package com.fitfusion.repository;
+
+import com.fitfusion.entity.RagLatencyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RagLatencyRollupRepository extends JpaRepository<RagLatencyRollup, Long> {
+    List<RagLatencyRollup> findByBucketStartGreaterThanEqualOrderByBucketStartAscModelAsc(LocalDateTime from);
+    
+    List<RagLatencyRollup> findByModelAndBucketStartGreaterThanEqualOrderByBucketStartAsc(String model, LocalDateTime from);
+}
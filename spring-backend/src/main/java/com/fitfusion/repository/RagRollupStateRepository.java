@@ -0,0 +1,9 @@
+package com.fitfusion.repository;
+
+import com.fitfusion.entity.RagRollupState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RagRollupStateRepository extends JpaRepository<RagRollupState, Long> {
+}
@@ -0,0 +1,21 @@
+package com.fitfusion.repository;
+
+import com.fitfusion.entity.UserActivityDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserActivityDailyRepository extends JpaRepository<UserActivityDaily, UserActivityDaily.Key> {
+
+    // Workouts, calories and minutes since a date: one row per active day at most
+    @Query("SELECT COALESCE(SUM(a.workouts), 0), COALESCE(SUM(a.calories), 0), COALESCE(SUM(a.minutes), 0) " +
+           "FROM UserActivityDaily a WHERE a.userId = :userId AND a.activityDate >= :since")
+    List<Object[]> sumSince(@Param("userId") Long userId, @Param("since") LocalDate since);
+
+    List<UserActivityDaily> findByUserIdAndActivityDateBetween(Long userId, LocalDate from, LocalDate to);
+}
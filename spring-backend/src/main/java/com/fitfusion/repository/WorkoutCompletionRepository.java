@@ -2,25 +2,41 @@ package com.fitfusion.repository;
 
 import com.fitfusion.entity.WorkoutCompletion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface WorkoutCompletionRepository extends JpaRepository<WorkoutCompletion, Long> {
     
-    // Find specific completion
-    Optional<WorkoutCompletion> findByUserIdAndPlanBundleIdAndWeekNumberAndDayNumberAndExerciseName(
-        Long userId, Long planBundleId, Integer weekNumber, Integer dayNumber, String exerciseName
-    );
+    // Remove a specific completion in one statement
+    @Modifying
+    @Query("DELETE FROM WorkoutCompletion wc WHERE wc.user.id = :userId AND wc.planBundle.id = :planBundleId " +
+           "AND wc.weekNumber = :weekNumber AND wc.dayNumber = :dayNumber AND wc.exerciseName = :exerciseName")
+    int deleteByNaturalKey(@Param("userId") Long userId, @Param("planBundleId") Long planBundleId,
+                           @Param("weekNumber") Integer weekNumber, @Param("dayNumber") Integer dayNumber,
+                           @Param("exerciseName") String exerciseName);
     
     // Get all completions for a user's plan
     List<WorkoutCompletion> findByUserIdAndPlanBundleId(Long userId, Long planBundleId);
     
+    // Natural key and rollup-relevant values of a plan's completions; scalars, so nothing is attached to the session
+    @Query("SELECT wc.weekNumber, wc.dayNumber, wc.exerciseName, wc.completedAt, wc.caloriesBurned, wc.durationMinutes " +
+           "FROM WorkoutCompletion wc WHERE wc.user.id = :userId AND wc.planBundle.id = :planBundleId")
+    List<Object[]> findCompletedValues(@Param("userId") Long userId, @Param("planBundleId") Long planBundleId);
+    
+    // completedAt, caloriesBurned and durationMinutes of one completion, if it exists
+    @Query("SELECT wc.completedAt, wc.caloriesBurned, wc.durationMinutes FROM WorkoutCompletion wc " +
+           "WHERE wc.user.id = :userId AND wc.planBundle.id = :planBundleId " +
+           "AND wc.weekNumber = :weekNumber AND wc.dayNumber = :dayNumber AND wc.exerciseName = :exerciseName")
+    List<Object[]> findCompletionValues(@Param("userId") Long userId, @Param("planBundleId") Long planBundleId,
+                                        @Param("weekNumber") Integer weekNumber, @Param("dayNumber") Integer dayNumber,
+                                        @Param("exerciseName") String exerciseName);
+    
     // Get completions for a specific week
     List<WorkoutCompletion> findByUserIdAndPlanBundleIdAndWeekNumber(
         Long userId, Long planBundleId, Integer weekNumber
@@ -31,16 +47,6 @@ public interface WorkoutCompletionRepository extends JpaRepository<WorkoutComple
         Long userId, LocalDateTime startDate, LocalDateTime endDate
     );
     
-    // Stats queries
-    @Query("SELECT COUNT(wc) FROM WorkoutCompletion wc WHERE wc.user.id = :userId AND wc.completedAt >= :startDate")
-    Long countWorkoutsByUserSince(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
-    
-    @Query("SELECT COALESCE(SUM(wc.caloriesBurned), 0) FROM WorkoutCompletion wc WHERE wc.user.id = :userId AND wc.completedAt >= :startDate")
-    Long sumCaloriesByUserSince(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
-    
-    @Query("SELECT COALESCE(SUM(wc.durationMinutes), 0) FROM WorkoutCompletion wc WHERE wc.user.id = :userId AND wc.completedAt >= :startDate")
-    Long sumMinutesByUserSince(@Param("userId") Long userId, @Param("startDate") LocalDateTime startDate);
-    
     @Query("SELECT COUNT(DISTINCT wc.user.id) FROM WorkoutCompletion wc")
     Long countDistinctUsers();
 }
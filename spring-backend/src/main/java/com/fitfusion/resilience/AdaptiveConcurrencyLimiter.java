@@ -0,0 +1,93 @@
+package com.fitfusion.resilience;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AIMD concurrency limit driven by tail latency. Every {@code sampleWindow} completed calls
+ * the p99 of that window is compared to the target: above it (or on a failure) the limit is
+ * cut multiplicatively, otherwise it grows by one if callers were actually pressing on it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetP99Ms;
+    private final double backoffRatio;
+
+    private final long[] samples;
+    private int sampleCount;
+    private boolean saturatedInWindow;
+
+    private double limit;
+    private int inFlight;
+    private long lastP99Ms;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetP99Ms,
+                                      double backoffRatio, int sampleWindow) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetP99Ms = targetP99Ms;
+        this.backoffRatio = backoffRatio;
+        this.samples = new long[sampleWindow];
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            saturatedInWindow = true;
+            return false;
+        }
+        inFlight++;
+        if (inFlight >= (int) limit) {
+            saturatedInWindow = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long durationMs) {
+        inFlight--;
+        samples[sampleCount++] = durationMs;
+        if (sampleCount == samples.length) {
+            adjust();
+        }
+    }
+
+    public synchronized void onError() {
+        inFlight--;
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    /** Releases a permit without feeding the latency window (e.g. client errors). */
+    public synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("limit", (int) limit);
+        snapshot.put("inFlight", inFlight);
+        snapshot.put("lastP99Ms", lastP99Ms);
+        snapshot.put("targetP99Ms", targetP99Ms);
+        return snapshot;
+    }
+
+    private void adjust() {
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        lastP99Ms = sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)];
+
+        if (lastP99Ms > targetP99Ms) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (saturatedInWindow) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        sampleCount = 0;
+        saturatedInWindow = false;
+    }
+}
@@ -0,0 +1,157 @@
+package com.fitfusion.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Count-based circuit breaker that treats slow calls like failures.
+ * Opens when the failure rate or the slow-call rate over the last {@code windowSize}
+ * calls crosses its threshold, then lets a few trial calls through after the open period.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final byte OK = 0;
+    private static final byte SLOW = 1;
+    private static final byte FAILED = 2;
+    private static final byte SLOW_FAILED = 3;
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallThresholdMs;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+
+    private final byte[] window;
+    private int windowIndex;
+    private int recordedCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitsIssued;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                          int slowCallRateThreshold, long slowCallThresholdMs, long openDurationMs,
+                          int halfOpenCalls) {
+        this.name = name;
+        this.window = new byte[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallThresholdMs = slowCallThresholdMs;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public synchronized void acquirePermission() {
+        long now = System.currentTimeMillis();
+        if (state == State.OPEN) {
+            long remaining = openedAt + openDurationMs - now;
+            if (remaining > 0) {
+                throw new RagServiceUnavailableException(
+                        "RAG service circuit is open for " + name + ", please retry later",
+                        (remaining + 999) / 1000);
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermitsIssued = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitsIssued >= halfOpenCalls) {
+                throw new RagServiceUnavailableException(
+                        "RAG service circuit is probing for " + name + ", please retry later",
+                        Math.max(1, openDurationMs / 1000));
+            }
+            halfOpenPermitsIssued++;
+        }
+    }
+
+    public synchronized void onSuccess(long durationMs) {
+        boolean slow = durationMs >= slowCallThresholdMs;
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open();
+                return;
+            }
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(slow ? SLOW : OK);
+    }
+
+    public synchronized void onError(long durationMs) {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(durationMs >= slowCallThresholdMs ? SLOW_FAILED : FAILED);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", state.name());
+        snapshot.put("recordedCalls", recordedCalls);
+        snapshot.put("failureRate", failureRate());
+        snapshot.put("slowCallRate", slowCallRate());
+        snapshot.put("slowCallThresholdMs", slowCallThresholdMs);
+        if (state == State.OPEN) {
+            snapshot.put("retryAfterMs", Math.max(0, openedAt + openDurationMs - System.currentTimeMillis()));
+        }
+        return snapshot;
+    }
+
+    private void record(byte outcome) {
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        recordedCalls = Math.min(recordedCalls + 1, window.length);
+
+        if (state == State.CLOSED && recordedCalls >= minimumCalls
+                && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private int failureRate() {
+        return rate(FAILED, SLOW_FAILED);
+    }
+
+    private int slowCallRate() {
+        return rate(SLOW, SLOW_FAILED);
+    }
+
+    private int rate(byte a, byte b) {
+        if (recordedCalls == 0) {
+            return 0;
+        }
+        int matches = 0;
+        for (int i = 0; i < recordedCalls; i++) {
+            if (window[i] == a || window[i] == b) {
+                matches++;
+            }
+        }
+        return matches * 100 / recordedCalls;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recordedCalls = 0;
+        windowIndex = 0;
+    }
+}
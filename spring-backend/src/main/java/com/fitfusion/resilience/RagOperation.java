@@ -0,0 +1,5 @@
+package com.fitfusion.resilience;
+
+public enum RagOperation {
+    GENERATE, STATUS, REINDEX
+}
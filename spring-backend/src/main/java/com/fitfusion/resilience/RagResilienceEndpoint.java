@@ -0,0 +1,24 @@
+package com.fitfusion.resilience;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Exposes circuit breaker, bulkhead and concurrency limit state at /actuator/rag.
+ */
+@Component
+@Endpoint(id = "rag")
+@RequiredArgsConstructor
+public class RagResilienceEndpoint {
+
+    private final RagResilienceGuard ragResilienceGuard;
+
+    @ReadOperation
+    public Map<String, Object> resilience() {
+        return ragResilienceGuard.snapshot();
+    }
+}
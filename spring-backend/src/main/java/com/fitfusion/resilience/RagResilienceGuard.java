@@ -0,0 +1,166 @@
+package com.fitfusion.resilience;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards every call to the RAG service. Each operation has its own latency-aware circuit
+ * breaker; plan generation (the LLM call) additionally goes through a semaphore bulkhead and
+ * an adaptive concurrency limit, so a slow RAG service sheds load with a 503 instead of
+ * tying up request threads.
+ */
+@Component
+@Slf4j
+public class RagResilienceGuard {
+
+    private final Map<RagOperation, CircuitBreaker> breakers = new EnumMap<>(RagOperation.class);
+    private final Semaphore generationBulkhead;
+    private final int bulkheadSize;
+    private final long bulkheadMaxWaitMs;
+    private final AdaptiveConcurrencyLimiter generationLimiter;
+    private final long retryAfterSeconds;
+
+    public RagResilienceGuard(
+            MeterRegistry meterRegistry,
+            @Value("${rag.resilience.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${rag.resilience.circuit-breaker.minimum-calls:5}") int minimumCalls,
+            @Value("${rag.resilience.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${rag.resilience.circuit-breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+            @Value("${rag.resilience.circuit-breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${rag.resilience.circuit-breaker.half-open-calls:2}") int halfOpenCalls,
+            @Value("${rag.resilience.circuit-breaker.slow-call-threshold.generate-ms:45000}") long generateSlowMs,
+            @Value("${rag.resilience.circuit-breaker.slow-call-threshold.status-ms:2000}") long statusSlowMs,
+            @Value("${rag.resilience.circuit-breaker.slow-call-threshold.reindex-ms:60000}") long reindexSlowMs,
+            @Value("${rag.resilience.bulkhead.max-concurrent-calls:8}") int bulkheadSize,
+            @Value("${rag.resilience.bulkhead.max-wait-ms:0}") long bulkheadMaxWaitMs,
+            @Value("${rag.resilience.limiter.initial-limit:4}") int initialLimit,
+            @Value("${rag.resilience.limiter.min-limit:1}") int minLimit,
+            @Value("${rag.resilience.limiter.target-p99-ms:40000}") long targetP99Ms,
+            @Value("${rag.resilience.limiter.backoff-ratio:0.7}") double backoffRatio,
+            @Value("${rag.resilience.limiter.sample-window:20}") int sampleWindow,
+            @Value("${rag.resilience.retry-after-seconds:10}") long retryAfterSeconds) {
+        breakers.put(RagOperation.GENERATE, new CircuitBreaker("generate", windowSize, minimumCalls,
+                failureRateThreshold, slowCallRateThreshold, generateSlowMs, openDurationMs, halfOpenCalls));
+        breakers.put(RagOperation.STATUS, new CircuitBreaker("status", windowSize, minimumCalls,
+                failureRateThreshold, slowCallRateThreshold, statusSlowMs, openDurationMs, halfOpenCalls));
+        breakers.put(RagOperation.REINDEX, new CircuitBreaker("reindex", windowSize, minimumCalls,
+                failureRateThreshold, slowCallRateThreshold, reindexSlowMs, openDurationMs, halfOpenCalls));
+
+        this.bulkheadSize = bulkheadSize;
+        this.generationBulkhead = new Semaphore(bulkheadSize);
+        this.bulkheadMaxWaitMs = bulkheadMaxWaitMs;
+        this.generationLimiter = new AdaptiveConcurrencyLimiter(
+                Math.min(initialLimit, bulkheadSize), minLimit, bulkheadSize, targetP99Ms, backoffRatio, sampleWindow);
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        breakers.forEach((operation, breaker) ->
+                Gauge.builder("rag.circuit.state", breaker, b -> b.getState().ordinal())
+                        .description("0 = closed, 1 = open, 2 = half-open")
+                        .tag("operation", operation.name().toLowerCase())
+                        .register(meterRegistry));
+        Gauge.builder("rag.bulkhead.available", generationBulkhead, Semaphore::availablePermits)
+                .register(meterRegistry);
+        Gauge.builder("rag.limiter.limit", generationLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(RagOperation operation, Supplier<T> call) {
+        if (operation == RagOperation.GENERATE) {
+            return executeGeneration(call);
+        }
+        return executeWithBreaker(breakers.get(operation), call);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        Map<String, Object> circuits = new LinkedHashMap<>();
+        breakers.forEach((operation, breaker) -> circuits.put(operation.name().toLowerCase(), breaker.snapshot()));
+        snapshot.put("circuitBreakers", circuits);
+        snapshot.put("bulkhead", Map.of(
+                "maxConcurrentCalls", bulkheadSize,
+                "availablePermits", generationBulkhead.availablePermits()));
+        snapshot.put("concurrencyLimit", generationLimiter.snapshot());
+        return snapshot;
+    }
+
+    private <T> T executeGeneration(Supplier<T> call) {
+        CircuitBreaker breaker = breakers.get(RagOperation.GENERATE);
+
+        if (!acquireBulkhead()) {
+            throw new RagServiceUnavailableException("Too many plan generations in progress", retryAfterSeconds);
+        }
+        try {
+            if (!generationLimiter.tryAcquire()) {
+                log.warn("Adaptive concurrency limit reached ({}), shedding plan generation",
+                        generationLimiter.getLimit());
+                throw new RagServiceUnavailableException("Plan generation is overloaded, please retry later",
+                        retryAfterSeconds);
+            }
+            // Taken last: a half-open probe permit must always end in onSuccess or onError
+            try {
+                breaker.acquirePermission();
+            } catch (RagServiceUnavailableException e) {
+                generationLimiter.onIgnored();
+                throw e;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                T result = call.get();
+                long duration = System.currentTimeMillis() - start;
+                generationLimiter.onSuccess(duration);
+                breaker.onSuccess(duration);
+                return result;
+            } catch (HttpClientErrorException e) {
+                // The RAG service answered; a rejected request says nothing about its health
+                generationLimiter.onIgnored();
+                breaker.onSuccess(System.currentTimeMillis() - start);
+                throw e;
+            } catch (Throwable e) {
+                // Errors too, or a half-open probe permit and the limiter slot would never be returned
+                generationLimiter.onError();
+                breaker.onError(System.currentTimeMillis() - start);
+                throw e;
+            }
+        } finally {
+            generationBulkhead.release();
+        }
+    }
+
+    private <T> T executeWithBreaker(CircuitBreaker breaker, Supplier<T> call) {
+        breaker.acquirePermission();
+        long start = System.currentTimeMillis();
+        try {
+            T result = call.get();
+            breaker.onSuccess(System.currentTimeMillis() - start);
+            return result;
+        } catch (HttpClientErrorException e) {
+            breaker.onSuccess(System.currentTimeMillis() - start);
+            throw e;
+        } catch (Throwable e) {
+            breaker.onError(System.currentTimeMillis() - start);
+            throw e;
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkheadMaxWaitMs > 0
+                    ? generationBulkhead.tryAcquire(bulkheadMaxWaitMs, TimeUnit.MILLISECONDS)
+                    : generationBulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
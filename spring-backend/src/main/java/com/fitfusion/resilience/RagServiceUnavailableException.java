@@ -0,0 +1,30 @@
+package com.fitfusion.resilience;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a RAG call is refused locally (open circuit, full bulkhead or concurrency limit).
+ * Resolves to a 503 with a Retry-After header.
+ */
+public class RagServiceUnavailableException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public RagServiceUnavailableException(String reason, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
@@ -0,0 +1,92 @@
+package com.fitfusion.security;
+
+import com.fitfusion.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Builds the authenticated principal from verified token claims, so authenticating a
+ * request needs no database query. When an admin changes a user's role or deletes them,
+ * tokens issued before that moment no longer carry trustworthy claims; those fall back
+ * to a lookup, as do tokens issued before role claims existed.
+ */
+@Component
+@Slf4j
+public class AuthPrincipalService {
+
+    private final CustomUserDetailsService userDetailsService;
+
+    // token -> principal, so repeat requests (and stale-token lookups) are not rebuilt each time
+    private final Cache<String, AuthenticatedUser> principals;
+
+    // userId -> epoch millis of the last role change or deletion; kept as long as a token can live
+    private final Cache<Long, Long> userChangedAt;
+
+    public AuthPrincipalService(CustomUserDetailsService userDetailsService,
+                                MeterRegistry meterRegistry,
+                                @Value("${jwt.expiration}") long tokenLifetimeMs,
+                                @Value("${jwt.principal-cache.ttl-seconds:300}") long principalTtlSeconds,
+                                @Value("${jwt.principal-cache.max-entries:10000}") long principalMaxEntries) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(principalTtlSeconds))
+                .maximumSize(principalMaxEntries)
+                .recordStats()
+                .build();
+        this.userChangedAt = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(tokenLifetimeMs))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "auth.principal");
+    }
+
+    /**
+     * Principal for an already verified token, or {@code null} if its user no longer exists.
+     */
+    public AuthenticatedUser resolve(String token, Claims claims) {
+        AuthenticatedUser cached = principals.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Long userId = claims.get("userId", Long.class);
+        String role = claims.get("role", String.class);
+        AuthenticatedUser principal;
+        if (userId != null && role != null && !issuedBeforeChange(userId, claims.getIssuedAt())) {
+            principal = new AuthenticatedUser(userId, claims.getSubject(), User.Role.valueOf(role), null);
+        } else {
+            try {
+                AuthenticatedUser loaded = userDetailsService.loadUserByUsername(claims.getSubject());
+                principal = new AuthenticatedUser(loaded.getUserId(), loaded.getEmail(), loaded.getRole(), null);
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        }
+        principals.put(token, principal);
+        return principal;
+    }
+
+    /**
+     * Stops trusting claims in tokens already issued to this user and drops their cached principals.
+     */
+    public void invalidateUser(Long userId) {
+        userChangedAt.put(userId, System.currentTimeMillis());
+        principals.asMap().values().removeIf(principal -> userId.equals(principal.getUserId()));
+        log.debug("Invalidated cached principals for user {}", userId);
+    }
+
+    private boolean issuedBeforeChange(Long userId, Date issuedAt) {
+        Long changedAt = userChangedAt.getIfPresent(userId);
+        // iat has second precision, so a token issued in the same second is treated as stale
+        return changedAt != null && (issuedAt == null || issuedAt.getTime() <= changedAt);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fitfusion.security;
+
+import com.fitfusion.entity.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal of an authenticated request. Carries the user id and role so controllers and
+ * {@code @PreAuthorize} checks never need to look the user up again.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString(exclude = "passwordHash")
+public class AuthenticatedUser implements UserDetails {
+
+    private final Long userId;
+    private final String email;
+    private final User.Role role;
+
+    // Only set when loaded for a password check; principals built from token claims have none
+    private final String passwordHash;
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
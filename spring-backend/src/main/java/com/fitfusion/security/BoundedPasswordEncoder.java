@@ -0,0 +1,103 @@
+package com.fitfusion.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a (BCrypt) delegate on a dedicated bounded executor. The request thread only waits;
+ * the CPU-heavy hashing is capped at the executor's thread count, so a login storm cannot
+ * starve other endpoints. When the queue is full, or the result does not arrive in time,
+ * the request fails fast with a 503. BCrypt ignores interrupts, so a task that only gets a
+ * thread after its caller has given up is skipped rather than hashed for nobody.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolTaskExecutor executor;
+    private final long maxWaitMs;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+    private final Counter expiredCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolTaskExecutor executor,
+                                  long maxWaitMs, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxWaitMs = maxWaitMs;
+        this.encodeTimer = meterRegistry.timer("auth.password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("auth.password.hash", "operation", "matches");
+        this.queueWaitTimer = meterRegistry.timer("auth.password.queue.wait");
+        this.rejectedCounter = meterRegistry.counter("auth.password.rejected");
+        this.expiredCounter = meterRegistry.counter("auth.password.expired");
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Cheap (reads the cost from the hash), so it stays on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Timer hashTimer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waitedNanos = System.nanoTime() - submittedAt;
+                queueWaitTimer.record(waitedNanos, TimeUnit.NANOSECONDS);
+                if (waitedNanos >= TimeUnit.MILLISECONDS.toNanos(maxWaitMs)) {
+                    // The caller has already answered 503
+                    expiredCounter.increment();
+                    throw new CancellationException("Password hash expired in queue");
+                }
+                return hashTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Too many sign-in attempts in progress, please retry", 1);
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Sign-in is taking too long, please retry", 2);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Sign-in was interrupted, please retry", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
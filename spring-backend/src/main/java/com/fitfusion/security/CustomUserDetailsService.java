@@ -3,29 +3,39 @@ package com.fitfusion.security;
 import com.fitfusion.entity.User;
 import com.fitfusion.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPasswordHash(),
-                java.util.Collections.singletonList(
-                        new org.springframework.security.core.authority.SimpleGrantedAuthority(
-                                "ROLE_" + user.getRole().name())));
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), user.getPasswordHash());
+    }
+
+    /**
+     * Called by the authentication provider after a successful login whose stored hash uses
+     * an older BCrypt cost; saves the re-encoded hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPasswordHash(newPassword);
+        userRepository.save(user);
+        log.info("Upgraded password hash for user {}", user.getId());
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole(), newPassword);
     }
 }
@@ -1,13 +1,17 @@
 package com.fitfusion.security;
 
+import com.fitfusion.logging.RequestMdcFilter;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,58 +22,50 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final CustomUserDetailsService userDetailsService;
+    // Verbose auth tracing; off by default, switch on at runtime with
+    // POST /actuator/loggers/com.fitfusion.security.trace {"configuredLevel": "DEBUG"}
+    private static final Logger authTrace = LoggerFactory.getLogger("com.fitfusion.security.trace");
+
+    private final AuthPrincipalService authPrincipalService;
     private final JwtUtil jwtUtil;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
-        System.out.println("🔍 JWT FILTER: Processing request: " + request.getMethod() + " " + request.getRequestURI());
-        
-        // Try both "Authorization" and "authorization" (case-insensitive)
+        // Header lookup is case-insensitive
         String authorizationHeader = request.getHeader("Authorization");
-        if (authorizationHeader == null) {
-            authorizationHeader = request.getHeader("authorization");
-            if (authorizationHeader != null) {
-                System.out.println("🔍 JWT FILTER: Found lowercase 'authorization' header with value");
-            }
-        }
-        
-        System.out.println("🔍 JWT FILTER: Authorization Header: " + (authorizationHeader != null
-                ? "Present (" + authorizationHeader.substring(0, Math.min(20, authorizationHeader.length())) + "...)"
-                : "MISSING"));
 
         String username = null;
         String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
-                System.out.println("🔍 JWT FILTER: JWT token found for user: " + username);
+                // Signature and expiry are checked once here; the claims are reused below
+                claims = jwtUtil.verify(jwt);
+                username = claims.getSubject();
             } catch (Exception e) {
-                System.out.println("❌ JWT FILTER: JWT token extraction failed: " + e.getMessage());
-                e.printStackTrace();
+                authTrace.debug("JWT rejected: {}", e.getMessage());
             }
         } else {
-            System.out.println("⚠️  JWT FILTER: No Bearer token found in Authorization header");
+            authTrace.debug("No Bearer token on request");
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            System.out.println("🔍 JWT FILTER: Loaded user details for: " + username + ", authorities: "
-                    + userDetails.getAuthorities());
+            // Built from the verified claims; no user lookup unless the claims are stale
+            AuthenticatedUser principal = authPrincipalService.resolve(jwt, claims);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        principal, null, principal.getAuthorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                System.out.println("✅ JWT FILTER: Successfully authenticated user: " + username + " with authorities: "
-                        + userDetails.getAuthorities());
+                MDC.put(RequestMdcFilter.USER_ID, String.valueOf(principal.getUserId()));
+                authTrace.debug("Authenticated {} with {}", username, principal.getAuthorities());
             } else {
-                System.out.println("❌ JWT FILTER: JWT token validation failed for user: " + username);
+                authTrace.debug("Token subject {} no longer exists", username);
             }
         }
         chain.doFilter(request, response);
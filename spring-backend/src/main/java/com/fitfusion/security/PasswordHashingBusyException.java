@@ -0,0 +1,26 @@
+package com.fitfusion.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when the password-hashing executor is saturated. Resolves to a 503 with a
+ * Retry-After header instead of queueing the login behind everyone else's.
+ */
+public class PasswordHashingBusyException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String reason, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
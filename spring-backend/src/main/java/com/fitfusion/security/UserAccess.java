@@ -0,0 +1,22 @@
+package com.fitfusion.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership checks for method security, e.g.
+ * {@code @PreAuthorize("@userAccess.isSelf(#userId)")}. Compares against the id carried by
+ * the principal, so no query is made.
+ */
+@Component("userAccess")
+public class UserAccess {
+
+    public boolean isSelf(Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return userId != null
+                && authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && userId.equals(user.getUserId());
+    }
+}
@@ -0,0 +1,75 @@
+package com.fitfusion.service;
+
+import com.fitfusion.entity.UserActivityDaily;
+import com.fitfusion.repository.UserActivityDailyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Calendar heatmap of a user's activity, read from the daily rollup: at most one row per
+ * day of the window, however many completions the user logged.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityHeatmapService {
+
+    private static final int MAX_DAYS = 366;
+
+    private final UserActivityDailyRepository activityDailyRepository;
+    private final ActivityRollupService activityRollupService;
+
+    /**
+     * Dense arrays with one value per day, oldest first, ending today in the application
+     * time zone. Streaks count consecutive days with at least one workout and only look
+     * inside the window; the current streak still counts if today has nothing logged yet.
+     */
+    public Map<String, Object> getHeatmap(Long userId, int days) {
+        int span = Math.max(1, Math.min(days, MAX_DAYS));
+        LocalDate end = activityRollupService.today();
+        LocalDate start = end.minusDays(span - 1);
+
+        int[] workouts = new int[span];
+        int[] minutes = new int[span];
+        int[] calories = new int[span];
+        for (UserActivityDaily day : activityDailyRepository.findByUserIdAndActivityDateBetween(userId, start, end)) {
+            int index = (int) ChronoUnit.DAYS.between(start, day.getActivityDate());
+            workouts[index] = day.getWorkouts();
+            minutes[index] = day.getMinutes().intValue();
+            calories[index] = day.getCalories().intValue();
+        }
+
+        int activeDays = 0;
+        int longestStreak = 0;
+        int run = 0;
+        for (int count : workouts) {
+            if (count > 0) {
+                activeDays++;
+                run++;
+                longestStreak = Math.max(longestStreak, run);
+            } else {
+                run = 0;
+            }
+        }
+        int currentStreak = 0;
+        for (int i = workouts[span - 1] > 0 ? span - 1 : span - 2; i >= 0 && workouts[i] > 0; i--) {
+            currentStreak++;
+        }
+
+        Map<String, Object> heatmap = new LinkedHashMap<>();
+        heatmap.put("timeZone", activityRollupService.getZone().getId());
+        heatmap.put("startDate", start);
+        heatmap.put("endDate", end);
+        heatmap.put("workouts", workouts);
+        heatmap.put("minutes", minutes);
+        heatmap.put("calories", calories);
+        heatmap.put("activeDays", activeDays);
+        heatmap.put("currentStreak", currentStreak);
+        heatmap.put("longestStreak", longestStreak);
+        return heatmap;
+    }
+}
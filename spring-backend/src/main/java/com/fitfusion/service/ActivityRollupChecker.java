@@ -0,0 +1,88 @@
+package com.fitfusion.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares user_activity_daily with a fresh aggregate of each user's completions and, when
+ * repair is on, rewrites the users that differ. Each user is checked under the same lock
+ * completion writes take, so in-flight writes do not show up as mismatches.
+ */
+@Service
+@Slf4j
+public class ActivityRollupChecker {
+
+    private static final String USERS_SQL =
+            "SELECT user_id FROM workout_completion UNION SELECT user_id FROM user_activity_daily";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ActivityRollupService rollupService;
+    private final boolean repair;
+    private final Counter mismatchCounter;
+
+    private volatile Map<String, Object> lastResult = Map.of();
+
+    public ActivityRollupChecker(JdbcTemplate jdbcTemplate,
+                                 ActivityRollupService rollupService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${activity.rollup.repair:true}") boolean repair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.repair = repair;
+        this.mismatchCounter = Counter.builder("activity.rollup.mismatches")
+                .description("Users whose daily activity rollup disagreed with their completions")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${activity.rollup.check-cron:0 0 4 * * *}")
+    public void scheduledCheck() {
+        check();
+    }
+
+    public Map<String, Object> check() {
+        long started = System.currentTimeMillis();
+        List<Long> mismatched = new ArrayList<>();
+        for (Long userId : jdbcTemplate.queryForList(USERS_SQL, Long.class)) {
+            if (rollupService.verifyUser(userId, repair)) {
+                mismatched.add(userId);
+            }
+        }
+        mismatchCounter.increment(mismatched.size());
+        int repaired = repair ? mismatched.size() : 0;
+
+        // Days that cancelled out to nothing are dead weight for the stats query
+        int pruned = jdbcTemplate.update(
+                "DELETE FROM user_activity_daily WHERE workouts = 0 AND calories = 0 AND minutes = 0");
+
+        if (!mismatched.isEmpty()) {
+            log.warn("Activity rollup check: {} users out of step (repaired {}): {}",
+                    mismatched.size(), repaired, mismatched.size() > 20 ? mismatched.subList(0, 20) : mismatched);
+        } else {
+            log.info("Activity rollup check: consistent (pruned {} empty days)", pruned);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("checkedAt", LocalDateTime.now());
+        result.put("mismatchedUsers", mismatched.size());
+        result.put("repairedUsers", repaired);
+        result.put("prunedDays", pruned);
+        result.put("durationMs", System.currentTimeMillis() - started);
+        lastResult = result;
+        return result;
+    }
+
+    public Map<String, Object> getLastResult() {
+        return lastResult;
+    }
+}
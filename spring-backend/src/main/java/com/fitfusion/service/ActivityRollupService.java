@@ -0,0 +1,165 @@
+package com.fitfusion.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains user_activity_daily. Completion writes call {@link #lockUser} first, read the
+ * row(s) they are about to replace, write, then {@link #apply} the difference, all in one
+ * transaction. The user lock keeps concurrent writes for one user from interleaving
+ * between the read and the write; different users never wait on each other.
+ *
+ * <p>Days are calendar days in the application time zone ({@code spring.jackson.time-zone}),
+ * worked out here rather than in SQL so they do not depend on the database's zone settings.
+ */
+@Service
+public class ActivityRollupService {
+
+    private static final String APPLY_SQL =
+            "INSERT INTO user_activity_daily (user_id, activity_date, workouts, calories, minutes) VALUES (?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE workouts = workouts + VALUES(workouts), "
+                    + "calories = calories + VALUES(calories), minutes = minutes + VALUES(minutes)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+
+    public ActivityRollupService(JdbcTemplate jdbcTemplate,
+                                 @Value("${spring.jackson.time-zone:UTC}") String timeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = ZoneId.of(timeZone);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zone);
+    }
+
+    /** The activity day of a completed_at value (which is in the JVM's zone). */
+    public LocalDate dayOf(LocalDateTime completedAt) {
+        return completedAt.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDate();
+    }
+
+    public Changes changes() {
+        return new Changes();
+    }
+
+    /** Serializes this user's completion writes until the surrounding transaction ends. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockUser(Long userId) {
+        jdbcTemplate.query("SELECT id FROM users WHERE id = ? FOR UPDATE", rs -> { }, userId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Long userId, Changes changes) {
+        List<Object[]> rows = new ArrayList<>();
+        changes.byDate.forEach((date, totals) -> {
+            if (totals[0] != 0 || totals[1] != 0 || totals[2] != 0) {
+                rows.add(new Object[]{userId, Date.valueOf(date), totals[0], totals[1], totals[2]});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(APPLY_SQL, rows);
+        }
+    }
+
+    /** Recomputes one user's rollup rows from workout_completion. */
+    @Transactional
+    public void rebuildUser(Long userId) {
+        lockUser(userId);
+        replace(userId, aggregateCompletions(userId));
+    }
+
+    /**
+     * Compares one user's rollup with their completions under the user lock, so writes in
+     * flight cannot show up as differences. Returns whether they differed; with
+     * {@code repair} the rollup is rewritten in the same transaction.
+     */
+    @Transactional
+    public boolean verifyUser(Long userId, boolean repair) {
+        lockUser(userId);
+        Changes expected = aggregateCompletions(userId);
+
+        Map<LocalDate, long[]> actual = new HashMap<>();
+        jdbcTemplate.query("SELECT activity_date, workouts, calories, minutes FROM user_activity_daily WHERE user_id = ?",
+                rs -> {
+                    long[] totals = {rs.getLong("workouts"), rs.getLong("calories"), rs.getLong("minutes")};
+                    if (totals[0] != 0 || totals[1] != 0 || totals[2] != 0) {
+                        actual.put(rs.getDate("activity_date").toLocalDate(), totals);
+                    }
+                }, userId);
+
+        boolean differs = actual.size() != expected.byDate.size()
+                || expected.byDate.entrySet().stream()
+                .anyMatch(e -> !Arrays.equals(e.getValue(), actual.get(e.getKey())));
+        if (differs && repair) {
+            replace(userId, expected);
+        }
+        return differs;
+    }
+
+    private Changes aggregateCompletions(Long userId) {
+        Changes totals = changes();
+        jdbcTemplate.query("SELECT completed_at, calories_burned, duration_minutes FROM workout_completion WHERE user_id = ?",
+                rs -> {
+                    totals.add(rs.getTimestamp("completed_at").toLocalDateTime(),
+                            rs.getObject("calories_burned", Integer.class),
+                            rs.getObject("duration_minutes", Integer.class));
+                }, userId);
+        return totals;
+    }
+
+    private void replace(Long userId, Changes totals) {
+        jdbcTemplate.update("DELETE FROM user_activity_daily WHERE user_id = ?", userId);
+        apply(userId, totals);
+    }
+
+    /**
+     * Per-day differences to apply to one user's rollup: {@code add} for a completion written,
+     * {@code remove} for one replaced or deleted.
+     */
+    public class Changes {
+        private final Map<LocalDate, long[]> byDate = new TreeMap<>();
+
+        private Changes() {
+        }
+
+        /** Per-day [workouts, calories, minutes] differences, oldest day first. */
+        public Map<LocalDate, long[]> totals() {
+            return Collections.unmodifiableMap(byDate);
+        }
+
+        public Changes add(LocalDateTime completedAt, Integer calories, Integer minutes) {
+            return change(completedAt, 1, calories, minutes);
+        }
+
+        public Changes remove(LocalDateTime completedAt, Integer calories, Integer minutes) {
+            return change(completedAt, -1, calories, minutes);
+        }
+
+        private Changes change(LocalDateTime completedAt, int sign, Integer calories, Integer minutes) {
+            long[] totals = byDate.computeIfAbsent(dayOf(completedAt), d -> new long[3]);
+            totals[0] += sign;
+            totals[1] += sign * (calories != null ? calories : 0L);
+            totals[2] += sign * (minutes != null ? minutes : 0L);
+            return this;
+        }
+    }
+}
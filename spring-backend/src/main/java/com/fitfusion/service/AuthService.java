@@ -2,6 +2,7 @@ package com.fitfusion.service;
 
 import com.fitfusion.entity.User;
 import com.fitfusion.repository.UserRepository;
+import com.fitfusion.security.AuthPrincipalService;
 import com.fitfusion.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,7 +10,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,18 +21,21 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final AuthPrincipalService authPrincipalService;
     private final AuthenticationManager authenticationManager;
 
-    @Transactional
+    // Not @Transactional: each repository call borrows a connection only for itself, so none is
+    // held while the hash waits on the bounded hashing pool
     public Map<String, Object> register(String name, String email, String password) {
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email already registered");
         }
+        String passwordHash = passwordEncoder.encode(password);
 
         User user = new User();
         user.setName(name);
         user.setEmail(email);
-        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setPasswordHash(passwordHash);
         
         // Automatically assign ADMIN role to admin@fitfusion.com
         if ("admin@fitfusion.com".equalsIgnoreCase(email)) {
@@ -41,7 +44,7 @@ public class AuthService {
 
         user = userRepository.save(user);
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole().name());
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -65,9 +68,10 @@ public class AuthService {
         if ("admin@fitfusion.com".equalsIgnoreCase(email) && user.getRole() != User.Role.ADMIN) {
             user.setRole(User.Role.ADMIN);
             user = userRepository.save(user);
+            authPrincipalService.invalidateUser(user.getId());
         }
 
-        String token = jwtUtil.generateToken(user.getEmail(), user.getId());
+        String token = jwtUtil.generateToken(user.getEmail(), user.getId(), user.getRole().name());
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
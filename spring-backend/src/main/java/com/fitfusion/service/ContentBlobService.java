@@ -0,0 +1,86 @@
+package com.fitfusion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fitfusion.entity.ContentBlob;
+import com.fitfusion.repository.ContentBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed storage for JSON payloads. Each distinct document is compressed and
+ * written once; callers get back a reference they can attach to an entity.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContentBlobService {
+
+    // A concurrent writer may insert the same hash first; the content is identical, so keep theirs
+    private static final String INSERT_SQL = "INSERT INTO content_blob (hash, data, original_size, created_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE hash = hash";
+
+    private final ContentBlobRepository contentBlobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Stores JSON text as-is and returns a reference to its blob.
+     */
+    @Transactional
+    public ContentBlob store(String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        String hash = hashOf(bytes);
+        if (!contentBlobRepository.existsById(hash)) {
+            jdbcTemplate.update(INSERT_SQL, hash, compress(bytes), bytes.length, Timestamp.valueOf(LocalDateTime.now()));
+        }
+        return contentBlobRepository.getReferenceById(hash);
+    }
+
+    /**
+     * Serializes a value with sorted map keys, so equal maps built in any order share a blob.
+     */
+    @Transactional
+    public ContentBlob storeValue(Object value) {
+        try {
+            return store(objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsString(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize blob content", e);
+        }
+    }
+
+    public static String hashOf(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] compress(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,348 @@
+package com.fitfusion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.entity.LeaderboardSnapshot;
+import com.fitfusion.entity.User;
+import com.fitfusion.repository.LeaderboardSnapshotRepository;
+import com.fitfusion.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Weekly and monthly leaderboards held in memory. Each board keeps users' period totals and
+ * one {@link RankedScores} per metric, so top-N and a user's own rank are O(log n).
+ * Completion writes feed it their per-day differences after commit; a periodic reconcile
+ * rebuilds each board from user_activity_daily (not workout_completion) and snapshots it,
+ * and startup resumes from a recent snapshot of the current period until the first
+ * reconcile, which runs shortly after.
+ */
+@Service
+@Slf4j
+public class LeaderboardService {
+
+    public enum Period { week, month }
+
+    // Same order as the rollup totals: [workouts, calories, minutes]
+    public enum Metric { workouts, calories, minutes }
+
+    private static final int MAX_LIMIT = 100;
+
+    private static final String PERIOD_TOTALS_SQL =
+            "SELECT user_id, SUM(workouts), SUM(calories), SUM(minutes) FROM user_activity_daily "
+                    + "WHERE activity_date >= ? AND activity_date < ? GROUP BY user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LeaderboardSnapshotRepository snapshotRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final ZoneId zone;
+    private final long snapshotMaxAgeMinutes;
+    private final Map<Period, AtomicReference<Board>> boards = new EnumMap<>(Period.class);
+
+    public LeaderboardService(JdbcTemplate jdbcTemplate,
+                              LeaderboardSnapshotRepository snapshotRepository,
+                              UserRepository userRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${spring.jackson.time-zone:UTC}") String timeZone,
+                              @Value("${leaderboard.snapshot-max-age-minutes:60}") long snapshotMaxAgeMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotRepository = snapshotRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.zone = ZoneId.of(timeZone);
+        this.snapshotMaxAgeMinutes = snapshotMaxAgeMinutes;
+        LocalDate today = LocalDate.now(zone);
+        for (Period period : Period.values()) {
+            // Writes arriving before load() are kept and replayed onto the restored or rebuilt board
+            Board initial = new Board(periodStart(period, today));
+            initial.startRecording();
+            boards.put(period, new AtomicReference<>(initial));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        LocalDate today = LocalDate.now(zone);
+        for (Period period : Period.values()) {
+            if (!restore(period, periodStart(period, today))) {
+                reconcile(period);
+            }
+        }
+    }
+
+    // The first run soon after startup catches up restored boards with writes made since their snapshot
+    @Scheduled(fixedDelayString = "${leaderboard.reconcile-interval-ms:600000}",
+            initialDelayString = "${leaderboard.initial-reconcile-delay-ms:30000}")
+    public void reconcileAll() {
+        for (Period period : Period.values()) {
+            reconcile(period);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotAll() {
+        for (Period period : Period.values()) {
+            snapshot(period, boards.get(period).get());
+        }
+    }
+
+    /**
+     * Applies a completion write's per-day differences to the boards whose period they fall
+     * in, once the surrounding transaction commits.
+     */
+    public void recordChanges(Long userId, ActivityRollupService.Changes changes) {
+        Map<LocalDate, long[]> totals = new HashMap<>(changes.totals());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyChanges(userId, totals);
+                }
+            });
+        } else {
+            applyChanges(userId, totals);
+        }
+    }
+
+    /** Top {@code limit} users for a period and metric, plus the viewer's own rank and value. */
+    public Map<String, Object> getLeaderboard(Period period, Metric metric, int limit, Long viewerId) {
+        Board board = currentBoard(period);
+        List<RankedScores.Entry> top = board.top(metric, Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+        Map<Long, String> names = userRepository.findAllById(top.stream().map(RankedScores.Entry::userId).toList())
+                .stream().collect(Collectors.toMap(User::getId, User::getName));
+        List<Map<String, Object>> entries = new ArrayList<>(top.size());
+        for (RankedScores.Entry entry : top) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("rank", entry.rank());
+            row.put("userId", entry.userId());
+            row.put("name", names.get(entry.userId()));
+            row.put("value", entry.score());
+            entries.add(row);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("period", period);
+        response.put("periodStart", board.periodStart);
+        response.put("metric", metric);
+        response.put("participants", board.participants(metric));
+        response.put("entries", entries);
+        response.put("me", viewerId != null ? board.standing(metric, viewerId) : null);
+        return response;
+    }
+
+    public synchronized void reconcile(Period period) {
+        Board current = currentBoard(period);
+        LocalDate start = current.periodStart;
+        Board fresh = new Board(start);
+
+        // Deltas landing on the live board while the totals are read are replayed onto the new one
+        current.startRecording();
+        jdbcTemplate.query(PERIOD_TOTALS_SQL, rs -> {
+            fresh.add(rs.getLong(1), new long[]{rs.getLong(2), rs.getLong(3), rs.getLong(4)});
+        }, Date.valueOf(start), Date.valueOf(periodEnd(period, start)));
+        current.handOver(fresh);
+
+        if (!boards.get(period).compareAndSet(current, fresh)) {
+            // The period rolled over while reading; the new period's board is already live
+            return;
+        }
+        snapshot(period, fresh);
+        log.debug("Reconciled {} leaderboard from {}: {} users", period, start, fresh.size());
+    }
+
+    private void applyChanges(Long userId, Map<LocalDate, long[]> totals) {
+        for (Period period : Period.values()) {
+            Board board = currentBoard(period);
+            LocalDate end = periodEnd(period, board.periodStart);
+            long[] delta = new long[3];
+            totals.forEach((date, change) -> {
+                if (!date.isBefore(board.periodStart) && date.isBefore(end)) {
+                    for (int i = 0; i < 3; i++) {
+                        delta[i] += change[i];
+                    }
+                }
+            });
+            if (delta[0] != 0 || delta[1] != 0 || delta[2] != 0) {
+                board.add(userId, delta);
+            }
+        }
+    }
+
+    // The board for the period containing today; a new period starts from an empty board
+    private Board currentBoard(Period period) {
+        AtomicReference<Board> ref = boards.get(period);
+        LocalDate start = periodStart(period, LocalDate.now(zone));
+        Board board = ref.get();
+        while (!board.periodStart.equals(start)) {
+            ref.compareAndSet(board, new Board(start));
+            board = ref.get();
+        }
+        return board;
+    }
+
+    private boolean restore(Period period, LocalDate periodStart) {
+        LeaderboardSnapshot snapshot = snapshotRepository.findById(period.name()).orElse(null);
+        if (snapshot == null || !snapshot.getPeriodStart().equals(periodStart)
+                || snapshot.getTakenAt().isBefore(LocalDateTime.now(zone).minusMinutes(snapshotMaxAgeMinutes))) {
+            return false;
+        }
+        try {
+            List<long[]> rows = objectMapper.readValue(snapshot.getScores(), new TypeReference<List<long[]>>() {});
+            Board board = new Board(periodStart);
+            for (long[] row : rows) {
+                board.add(row[0], new long[]{row[1], row[2], row[3]});
+            }
+            Board current = currentBoard(period);
+            if (!current.periodStart.equals(periodStart)) {
+                return false;
+            }
+            current.handOver(board);
+            if (!boards.get(period).compareAndSet(current, board)) {
+                return false;
+            }
+            log.info("Restored {} leaderboard from snapshot taken at {} ({} users)", period, snapshot.getTakenAt(), rows.size());
+            return true;
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable {} leaderboard snapshot", period, e);
+            return false;
+        }
+    }
+
+    private void snapshot(Period period, Board board) {
+        try {
+            String scores = objectMapper.writeValueAsString(board.rows());
+            snapshotRepository.save(new LeaderboardSnapshot(period.name(), board.periodStart, LocalDateTime.now(zone), scores));
+        } catch (Exception e) {
+            // Only costs a re-aggregation on the next start
+            log.warn("Failed to snapshot {} leaderboard", period, e);
+        }
+    }
+
+    private static LocalDate periodStart(Period period, LocalDate day) {
+        return switch (period) {
+            case week -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case month -> day.withDayOfMonth(1);
+        };
+    }
+
+    // Exclusive
+    private static LocalDate periodEnd(Period period, LocalDate start) {
+        return switch (period) {
+            case week -> start.plusWeeks(1);
+            case month -> start.plusMonths(1);
+        };
+    }
+
+    /**
+     * One period's totals and rankings. Users with nothing in a metric are not ranked in it.
+     * While a reconcile reads the database the board records the deltas it receives, and once
+     * replaced it forwards late ones to its successor, so none are lost in the swap. A write
+     * that committed just before the read but was applied just after it is counted twice
+     * until the next reconcile; that window is only the gap between commit and its callback.
+     */
+    private static final class Board {
+        private final LocalDate periodStart;
+        private final Map<Long, long[]> totals = new HashMap<>();
+        private final RankedScores[] rankings = {new RankedScores(), new RankedScores(), new RankedScores()};
+        private List<long[]> recorded;
+        private Board successor;
+
+        Board(LocalDate periodStart) {
+            this.periodStart = periodStart;
+        }
+
+        synchronized void startRecording() {
+            recorded = new ArrayList<>();
+        }
+
+        // Lock order is always old board, then new board
+        synchronized void handOver(Board next) {
+            if (recorded != null) {
+                for (long[] row : recorded) {
+                    next.add(row[0], new long[]{row[1], row[2], row[3]});
+                }
+            }
+            recorded = null;
+            successor = next;
+        }
+
+        synchronized void add(long userId, long[] delta) {
+            if (successor != null) {
+                successor.add(userId, delta);
+                return;
+            }
+            if (recorded != null) {
+                recorded.add(new long[]{userId, delta[0], delta[1], delta[2]});
+            }
+            long[] previous = totals.getOrDefault(userId, new long[3]);
+            long[] updated = new long[3];
+            for (int i = 0; i < 3; i++) {
+                updated[i] = previous[i] + delta[i];
+                if (previous[i] > 0) {
+                    rankings[i].remove(userId, previous[i]);
+                }
+                if (updated[i] > 0) {
+                    rankings[i].insert(userId, updated[i]);
+                }
+            }
+            if (updated[0] == 0 && updated[1] == 0 && updated[2] == 0) {
+                totals.remove(userId);
+            } else {
+                totals.put(userId, updated);
+            }
+        }
+
+        synchronized List<RankedScores.Entry> top(Metric metric, int limit) {
+            return rankings[metric.ordinal()].top(limit);
+        }
+
+        synchronized int participants(Metric metric) {
+            return rankings[metric.ordinal()].size();
+        }
+
+        synchronized Map<String, Object> standing(Metric metric, long userId) {
+            long[] userTotals = totals.get(userId);
+            long value = userTotals != null ? userTotals[metric.ordinal()] : 0;
+            Map<String, Object> standing = new LinkedHashMap<>();
+            standing.put("rank", value > 0 ? rankings[metric.ordinal()].rank(userId, value) : null);
+            standing.put("value", value);
+            return standing;
+        }
+
+        synchronized int size() {
+            return totals.size();
+        }
+
+        synchronized List<long[]> rows() {
+            return totals.entrySet().stream()
+                    .map(e -> new long[]{e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[2]})
+                    .toList();
+        }
+    }
+}
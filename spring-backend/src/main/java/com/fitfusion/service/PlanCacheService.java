@@ -0,0 +1,133 @@
+package com.fitfusion.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fitfusion.dto.rag.RawPlanResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Caches RAG responses by a hash of the canonicalized preference map, so users with
+ * identical profiles reuse a generated plan instead of paying for another LLM call.
+ * Entries are stored as serialized JSON and are dropped whenever the catalog changes.
+ */
+@Service
+@Slf4j
+public class PlanCacheService {
+
+    private final ObjectMapper objectMapper;
+    private final RagResponseParser ragResponseParser;
+    private final Cache<String, byte[]> cache;
+    private final boolean enabled;
+
+    public PlanCacheService(ObjectMapper objectMapper,
+                            RagResponseParser ragResponseParser,
+                            MeterRegistry meterRegistry,
+                            @Value("${plan.cache.enabled:true}") boolean enabled,
+                            @Value("${plan.cache.ttl-minutes:1440}") long ttlMinutes,
+                            @Value("${plan.cache.max-entries:500}") long maxEntries) {
+        this.objectMapper = objectMapper;
+        this.ragResponseParser = ragResponseParser;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "plan");
+    }
+
+    /**
+     * Stable key for a preference map: keys sorted, list order and duplicates ignored,
+     * numbers normalized so 70 and 70.0 hash the same.
+     */
+    public String keyFor(Map<String, Object> preferences) {
+        try {
+            byte[] canonical = objectMapper.writer()
+                    .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsBytes(canonicalize(preferences));
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical);
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException | IOException e) {
+            throw new IllegalStateException("Failed to hash preferences", e);
+        }
+    }
+
+    public Optional<RawPlanResponse> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        byte[] cached = cache.getIfPresent(key);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ragResponseParser.parseRaw(cached));
+        } catch (IOException e) {
+            log.warn("Dropping unreadable plan cache entry {}: {}", key, e.getMessage());
+            cache.invalidate(key);
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, RawPlanResponse ragResponse) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            cache.put(key, ragResponseParser.toJson(ragResponse));
+        } catch (IOException e) {
+            log.warn("Could not cache plan for key {}: {}", key, e.getMessage());
+        }
+    }
+
+    public void invalidateAll() {
+        long size = cache.estimatedSize();
+        cache.invalidateAll();
+        if (size > 0) {
+            log.info("Invalidated {} cached plans after catalog change", size);
+        }
+    }
+
+    private Object canonicalize(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((k, v) -> sorted.put(String.valueOf(k), canonicalize(v)));
+            return sorted;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> items = new ArrayList<>();
+            collection.forEach(item -> items.add(canonicalize(item)));
+            if (items.stream().allMatch(item -> item instanceof String)) {
+                TreeSet<String> unique = new TreeSet<>();
+                items.forEach(item -> unique.add(((String) item).trim()));
+                return new ArrayList<>(unique);
+            }
+            return items;
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString()).stripTrailingZeros().toPlainString();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,182 @@
+package com.fitfusion.service;
+
+import com.fitfusion.dto.PlanGenerationContext;
+import com.fitfusion.dto.PlanGenerationJob;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs plan generations as background jobs on the bounded plan generation executor.
+ * Jobs are kept in memory and forgotten a while after they finish.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlanGenerationJobService {
+
+    private final PlanService planService;
+    private final ThreadPoolTaskExecutor planGenerationExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, PlanGenerationJob> jobs = new ConcurrentHashMap<>();
+
+    @Value("${plan.generation.job-retention-minutes:30}")
+    private long jobRetentionMinutes;
+
+    @Value("${plan.generation.stream-timeout-ms:180000}")
+    private long streamTimeoutMs;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("plan.generation.queue.depth", this, PlanGenerationJobService::getQueueDepth)
+                .description("Plan generations waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("plan.generation.in.flight", this, PlanGenerationJobService::getInFlight)
+                .description("Plan generations currently running")
+                .register(meterRegistry);
+    }
+
+    public PlanGenerationJob submit(Long userId, boolean bypassCache) {
+        purgeFinishedJobs();
+
+        // Validate up front so preference errors are reported on the POST, not on the job
+        PlanGenerationContext context = planService.preparePlanGeneration(userId, bypassCache);
+
+        PlanGenerationJob job = new PlanGenerationJob(UUID.randomUUID().toString(), userId);
+        jobs.put(job.getJobId(), job);
+
+        try {
+            planGenerationExecutor.execute(() -> run(job, context));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobId());
+            log.warn("Plan generation queue full, rejecting job for user {}", userId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Plan generation is busy, please try again shortly");
+        }
+
+        log.info("Queued plan generation job {} for user {}", job.getJobId(), userId);
+        return job;
+    }
+
+    /**
+     * Streams a generation as Server-Sent Events: progress and partial plan events from the
+     * RAG service as they arrive, then {@code complete} with the persisted bundle (or {@code error}).
+     * The plan is still persisted if the client disconnects mid-stream.
+     */
+    public SseEmitter stream(Long userId, boolean bypassCache) {
+        PlanGenerationContext context = planService.preparePlanGeneration(userId, bypassCache);
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AtomicBoolean connected = new AtomicBoolean(true);
+        emitter.onTimeout(() -> connected.set(false));
+        emitter.onError(e -> connected.set(false));
+
+        try {
+            planGenerationExecutor.execute(() -> runStream(emitter, connected, context));
+        } catch (TaskRejectedException e) {
+            log.warn("Plan generation queue full, rejecting stream for user {}", userId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Plan generation is busy, please try again shortly");
+        }
+        return emitter;
+    }
+
+    public PlanGenerationJob getJob(Long userId, String jobId) {
+        PlanGenerationJob job = jobs.get(jobId);
+        if (job == null || !job.getUserId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Generation job not found");
+        }
+        return job;
+    }
+
+    public Map<String, Object> describe(PlanGenerationJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("job_id", job.getJobId());
+        response.put("user_id", job.getUserId());
+        response.put("status", job.getStatus().name());
+        response.put("submitted_at", job.getSubmittedAt());
+        response.put("started_at", job.getStartedAt());
+        response.put("finished_at", job.getFinishedAt());
+        response.put("plan_bundle_id", job.getPlanBundleId());
+        response.put("error", job.getError());
+        if (job.getStatus() == PlanGenerationJob.Status.completed) {
+            response.put("result", job.getResult());
+        }
+        response.put("queue_depth", getQueueDepth());
+        response.put("in_flight", getInFlight());
+        return response;
+    }
+
+    public int getQueueDepth() {
+        return planGenerationExecutor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    public int getInFlight() {
+        return planGenerationExecutor.getActiveCount();
+    }
+
+    private void run(PlanGenerationJob job, PlanGenerationContext context) {
+        job.setStartedAt(LocalDateTime.now());
+        job.setStatus(PlanGenerationJob.Status.running);
+        try {
+            Map<String, Object> result = planService.executePlanGeneration(context);
+            job.setResult(result);
+            job.setPlanBundleId((Long) result.get("plan_bundle_id"));
+            job.setStatus(PlanGenerationJob.Status.completed);
+        } catch (Exception e) {
+            log.error("Plan generation job {} failed: {}", job.getJobId(), e.getMessage());
+            job.setError(e.getMessage());
+            job.setStatus(PlanGenerationJob.Status.failed);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+
+    private void runStream(SseEmitter emitter, AtomicBoolean connected, PlanGenerationContext context) {
+        try {
+            Map<String, Object> result = planService.executePlanGeneration(context,
+                    event -> send(emitter, connected, String.valueOf(event.get("event")), event));
+            send(emitter, connected, "complete", result);
+        } catch (Exception e) {
+            log.error("Streamed plan generation failed for user {}: {}", context.getUserId(), e.getMessage());
+            send(emitter, connected, "error", Map.of("message", String.valueOf(e.getMessage())));
+        }
+        if (connected.get()) {
+            emitter.complete();
+        }
+    }
+
+    private void send(SseEmitter emitter, AtomicBoolean connected, String name, Object data) {
+        if (!connected.get()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Plan stream client went away, generation continues: {}", e.getMessage());
+            connected.set(false);
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
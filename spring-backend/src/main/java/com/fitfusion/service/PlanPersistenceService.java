@@ -0,0 +1,128 @@
+package com.fitfusion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.fitfusion.dto.PlanGenerationContext;
+import com.fitfusion.dto.rag.RawPlanResponse;
+import com.fitfusion.entity.ContentBlob;
+import com.fitfusion.entity.DietPlan;
+import com.fitfusion.entity.PlanBundle;
+import com.fitfusion.entity.RagLog;
+import com.fitfusion.entity.WorkoutPlan;
+import com.fitfusion.repository.DietPlanRepository;
+import com.fitfusion.repository.PlanBundleRepository;
+import com.fitfusion.repository.WorkoutPlanRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a generated plan in one short transaction, after the RAG call has returned.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlanPersistenceService {
+
+    private final WorkoutPlanRepository workoutPlanRepository;
+    private final DietPlanRepository dietPlanRepository;
+    private final PlanBundleRepository planBundleRepository;
+    private final RagLogWriter ragLogWriter;
+    private final ContentBlobService contentBlobService;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public Map<String, Object> saveGeneratedPlan(PlanGenerationContext context, RawPlanResponse ragResponse,
+                                                 long durationMs, boolean fromCache) {
+        Long userId = context.getUserId();
+
+        // Mark old active plans as abandoned
+        List<PlanBundle> oldActivePlans = planBundleRepository
+                .findAllByUserIdAndStatus(userId, PlanBundle.PlanStatus.active);
+
+        if (!oldActivePlans.isEmpty()) {
+            log.info("Marking {} old active plans as abandoned for user {}", oldActivePlans.size(), userId);
+            for (PlanBundle oldPlan : oldActivePlans) {
+                oldPlan.setStatus(PlanBundle.PlanStatus.abandoned);
+                planBundleRepository.save(oldPlan);
+            }
+        }
+
+        // Payloads go to content-addressed blobs; identical plans and snapshots are stored once
+        ContentBlob workoutBlob = contentBlobService.store(ragResponse.workoutPlanJson());
+        ContentBlob dietBlob = contentBlobService.store(ragResponse.dietPlanJson());
+        ContentBlob preferencesBlob = contentBlobService.storeValue(context.getPreferences());
+
+        // Save workout plan (JSON text is stored as received)
+        WorkoutPlan workoutPlan = new WorkoutPlan();
+        workoutPlan.setPlanBlob(workoutBlob);
+        workoutPlan.setTotalWeeks(ragResponse.totalWeeks());
+        workoutPlan.setFrequencyPerWeek(ragResponse.frequencyPerWeek());
+        workoutPlan.setSummary(ragResponse.workoutSummary());
+        workoutPlan = workoutPlanRepository.save(workoutPlan);
+
+        // Save diet plan
+        DietPlan dietPlan = new DietPlan();
+        dietPlan.setPlanBlob(dietBlob);
+        dietPlan.setTotalDailyCalories(ragResponse.totalDailyCalories() != null ? ragResponse.totalDailyCalories() : 0);
+        dietPlan.setTotalDailyProtein(ragResponse.totalDailyProtein() != null ? ragResponse.totalDailyProtein() : 0);
+        dietPlan.setSummary(ragResponse.dietSummary());
+        dietPlan = dietPlanRepository.save(dietPlan);
+
+        // Create plan bundle
+        Integer durationWeeks = context.getDurationWeeks() != null ? context.getDurationWeeks() : 4;
+        PlanBundle planBundle = new PlanBundle();
+        planBundle.setUserId(userId);
+        planBundle.setWorkoutPlanId(workoutPlan.getId());
+        planBundle.setDietPlanId(dietPlan.getId());
+        planBundle.setPreferencesBlob(preferencesBlob);
+        planBundle.setStatus(PlanBundle.PlanStatus.active);
+        planBundle.setStartDate(LocalDate.now());
+        planBundle.setAllowedChangeDeadline(LocalDate.now().plusWeeks(durationWeeks));
+        planBundle = planBundleRepository.save(planBundle);
+
+        // Log RAG request off the critical path (cache hits never reached the RAG service).
+        // Payloads reference the blobs above instead of repeating their content.
+        if (!fromCache) {
+            Map<String, Object> responseEnvelope = new LinkedHashMap<>();
+            responseEnvelope.put("status", "success");
+            responseEnvelope.put("workout_plan_ref", workoutBlob.getHash());
+            responseEnvelope.put("diet_plan_ref", dietBlob.getHash());
+            responseEnvelope.put("metadata", ragResponse.metadata());
+
+            RagLog ragLog = new RagLog();
+            ragLog.setUserId(userId);
+            ragLog.setPlanBundleId(planBundle.getId());
+            ragLog.setRequestPayload(toJson(Map.of("user_id", userId, "preferences_ref", preferencesBlob.getHash())));
+            ragLog.setResponsePayload(toJson(responseEnvelope));
+            ragLog.setModelUsed(ragResponse.metadata() != null ? ragResponse.metadata().llmModel() : null);
+            ragLog.setDurationMs((int) durationMs);
+            ragLog.setStatus("success");
+            ragLogWriter.enqueue(ragLog);
+        }
+
+        // Build response
+        Map<String, Object> response = new HashMap<>();
+        response.put("plan_bundle_id", planBundle.getId());
+        response.put("workout_plan", new RawValue(ragResponse.workoutPlanJson()));
+        response.put("diet_plan", new RawValue(ragResponse.dietPlanJson()));
+        response.put("metadata", ragResponse.metadata());
+        return response;
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize RAG log payload", e);
+        }
+    }
+}
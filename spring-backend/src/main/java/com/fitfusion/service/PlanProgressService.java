@@ -0,0 +1,276 @@
+package com.fitfusion.service;
+
+import com.fitfusion.dto.rag.RagWorkoutPlan;
+import com.fitfusion.entity.PlanBundle;
+import com.fitfusion.repository.PlanBundleRepository;
+import com.fitfusion.repository.WorkoutCompletionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan progress as a bitset. Every exercise slot of a bundle's workout plan (weeks, days and
+ * exercises in plan order) gets a bit position; a bundle's completions are one small
+ * {@code long[]}. Layouts never change once a bundle exists, and the bits are updated in place
+ * after each mark/unmark commits, so progress queries do not touch the database once warm.
+ */
+@Service
+public class PlanProgressService {
+
+    private final PlanBundleRepository planBundleRepository;
+    private final WorkoutCompletionRepository completionRepository;
+    private final RagResponseParser ragResponseParser;
+    private final Cache<Long, PlanLayout> layouts;
+    // Replaced on every change, never mutated, so readers always see a consistent set
+    private final Cache<Long, long[]> progress;
+
+    public PlanProgressService(PlanBundleRepository planBundleRepository,
+                               WorkoutCompletionRepository completionRepository,
+                               RagResponseParser ragResponseParser,
+                               MeterRegistry meterRegistry,
+                               @Value("${plan.progress.cache.ttl-minutes:120}") long ttlMinutes,
+                               @Value("${plan.progress.cache.max-entries:10000}") long maxEntries) {
+        this.planBundleRepository = planBundleRepository;
+        this.completionRepository = completionRepository;
+        this.ragResponseParser = ragResponseParser;
+        this.layouts = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        this.progress = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, layouts, "plan.progress.layout");
+        CaffeineCacheMetrics.monitor(meterRegistry, progress, "plan.progress.bits");
+    }
+
+    /**
+     * Overall, per-week and per-day completion, the next incomplete exercise, and the raw
+     * bitmap (base64, little-endian, slot order as in the plan). Each day's {@code done}
+     * string has one '0'/'1' per exercise in plan order.
+     */
+    public Map<String, Object> getProgress(Long userId, Long planBundleId) {
+        PlanLayout layout = layoutFor(userId, planBundleId);
+        BitSet bits = BitSet.valueOf(bitsFor(layout, planBundleId));
+
+        List<Map<String, Object>> weeks = new ArrayList<>();
+        Map<String, Object> nextIncomplete = null;
+        for (WeekLayout week : layout.weeks()) {
+            List<Map<String, Object>> days = new ArrayList<>();
+            int weekDone = 0;
+            int weekTotal = 0;
+            for (DayLayout day : week.days()) {
+                int total = day.exerciseNames().size();
+                StringBuilder done = new StringBuilder(total);
+                int completed = 0;
+                for (int i = 0; i < total; i++) {
+                    boolean set = bits.get(day.firstSlot() + i);
+                    done.append(set ? '1' : '0');
+                    if (set) {
+                        completed++;
+                    } else if (nextIncomplete == null) {
+                        nextIncomplete = new LinkedHashMap<>();
+                        nextIncomplete.put("weekNumber", week.weekNumber());
+                        nextIncomplete.put("dayNumber", day.dayNumber());
+                        nextIncomplete.put("exerciseName", day.exerciseNames().get(i));
+                    }
+                }
+                Map<String, Object> dayProgress = new LinkedHashMap<>();
+                dayProgress.put("dayNumber", day.dayNumber());
+                dayProgress.put("completed", completed);
+                dayProgress.put("total", total);
+                dayProgress.put("percentComplete", percent(completed, total));
+                dayProgress.put("done", done.toString());
+                days.add(dayProgress);
+                weekDone += completed;
+                weekTotal += total;
+            }
+            Map<String, Object> weekProgress = new LinkedHashMap<>();
+            weekProgress.put("weekNumber", week.weekNumber());
+            weekProgress.put("completed", weekDone);
+            weekProgress.put("total", weekTotal);
+            weekProgress.put("percentComplete", percent(weekDone, weekTotal));
+            weekProgress.put("days", days);
+            weeks.add(weekProgress);
+        }
+
+        int completed = bits.cardinality();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("planBundleId", planBundleId);
+        response.put("completed", completed);
+        response.put("total", layout.slotCount());
+        response.put("percentComplete", percent(completed, layout.slotCount()));
+        response.put("nextIncomplete", nextIncomplete);
+        response.put("bitmap", Base64.getEncoder().encodeToString(bits.toByteArray()));
+        response.put("weeks", weeks);
+        return response;
+    }
+
+    public boolean isCompleted(Long userId, Long planBundleId, Integer weekNumber, Integer dayNumber, String exerciseName) {
+        PlanLayout layout = layoutFor(userId, planBundleId);
+        int[] slots = layout.slotsByKey().get(WorkoutCompletionService.naturalKey(weekNumber, dayNumber, exerciseName));
+        if (slots == null) {
+            return false;
+        }
+        long[] words = bitsFor(layout, planBundleId);
+        return isSet(words, slots[0]);
+    }
+
+    /**
+     * Sets or clears the bits for the given completion keys once the current transaction
+     * commits. Bundles not in the cache are left alone; they load fresh on next use.
+     */
+    public void recordChange(Long planBundleId, Collection<String> keys, boolean completed) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyChange(planBundleId, keys, completed);
+                }
+            });
+        } else {
+            applyChange(planBundleId, keys, completed);
+        }
+    }
+
+    private void applyChange(Long planBundleId, Collection<String> keys, boolean completed) {
+        PlanLayout layout = layouts.getIfPresent(planBundleId);
+        if (layout == null) {
+            progress.invalidate(planBundleId);
+            return;
+        }
+        progress.asMap().computeIfPresent(planBundleId, (id, words) -> {
+            long[] updated = words.clone();
+            for (String key : keys) {
+                int[] slots = layout.slotsByKey().get(key);
+                if (slots == null) {
+                    continue;  // not an exercise of this plan
+                }
+                for (int slot : slots) {
+                    if (completed) {
+                        updated[slot >> 6] |= 1L << slot;
+                    } else {
+                        updated[slot >> 6] &= ~(1L << slot);
+                    }
+                }
+            }
+            return updated;
+        });
+    }
+
+    private PlanLayout layoutFor(Long userId, Long planBundleId) {
+        PlanLayout layout = layouts.get(planBundleId, this::loadLayout);
+        if (layout == null || !layout.userId().equals(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Plan not found");
+        }
+        return layout;
+    }
+
+    private long[] bitsFor(PlanLayout layout, Long planBundleId) {
+        return progress.get(planBundleId, id -> loadBits(layout, id));
+    }
+
+    private PlanLayout loadLayout(Long planBundleId) {
+        PlanBundle bundle = planBundleRepository.findWithWorkoutPlanById(planBundleId).orElse(null);
+        if (bundle == null) {
+            return null;
+        }
+        RagWorkoutPlan plan = null;
+        if (bundle.getWorkoutPlan() != null) {
+            try {
+                plan = ragResponseParser.parseWorkoutPlan(bundle.getWorkoutPlan().getPlanJson());
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read workout plan", e);
+            }
+        }
+
+        List<WeekLayout> weeks = new ArrayList<>();
+        Map<String, int[]> slotsByKey = new HashMap<>();
+        int slot = 0;
+        if (plan != null && plan.weeks() != null) {
+            for (RagWorkoutPlan.Week week : plan.weeks()) {
+                if (week.weekNumber() == null || week.days() == null) {
+                    continue;
+                }
+                List<DayLayout> days = new ArrayList<>();
+                for (RagWorkoutPlan.Day day : week.days()) {
+                    if (day.dayNumber() == null || day.exercises() == null) {
+                        continue;
+                    }
+                    List<String> names = new ArrayList<>();
+                    int firstSlot = slot;
+                    for (RagWorkoutPlan.Exercise exercise : day.exercises()) {
+                        String name = exercise.exerciseName() != null ? exercise.exerciseName() : "";
+                        names.add(name);
+                        // A name listed twice in a day is one completion row, so it sets both slots
+                        slotsByKey.merge(WorkoutCompletionService.naturalKey(week.weekNumber(), day.dayNumber(), name),
+                                new int[]{slot}, PlanProgressService::concat);
+                        slot++;
+                    }
+                    days.add(new DayLayout(day.dayNumber(), firstSlot, List.copyOf(names)));
+                }
+                weeks.add(new WeekLayout(week.weekNumber(), List.copyOf(days)));
+            }
+        }
+        return new PlanLayout(bundle.getUserId(), slot, List.copyOf(weeks), Map.copyOf(slotsByKey));
+    }
+
+    private long[] loadBits(PlanLayout layout, Long planBundleId) {
+        long[] words = new long[(layout.slotCount() + 63) >> 6];
+        for (Object[] row : completionRepository.findCompletedValues(layout.userId(), planBundleId)) {
+            int[] slots = layout.slotsByKey().get(
+                    WorkoutCompletionService.naturalKey((Integer) row[0], (Integer) row[1], (String) row[2]));
+            if (slots != null) {
+                for (int slot : slots) {
+                    words[slot >> 6] |= 1L << slot;
+                }
+            }
+        }
+        return words;
+    }
+
+    private static boolean isSet(long[] words, int slot) {
+        return (words[slot >> 6] & (1L << slot)) != 0;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] joined = new int[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    private static double percent(int completed, int total) {
+        return total == 0 ? 0.0 : Math.round(1000.0 * completed / total) / 10.0;
+    }
+
+    private record PlanLayout(Long userId, int slotCount, List<WeekLayout> weeks, Map<String, int[]> slotsByKey) {
+    }
+
+    private record WeekLayout(int weekNumber, List<DayLayout> days) {
+    }
+
+    private record DayLayout(int dayNumber, int firstSlot, List<String> exerciseNames) {
+    }
+}
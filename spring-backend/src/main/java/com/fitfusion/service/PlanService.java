@@ -1,20 +1,32 @@
 package com.fitfusion.service;
 
+import com.fitfusion.dto.PlanGenerationContext;
+import com.fitfusion.dto.PlanSummaryResponse;
+import com.fitfusion.dto.rag.RagMetadata;
+import com.fitfusion.dto.rag.RawPlanResponse;
 import com.fitfusion.entity.*;
 import com.fitfusion.repository.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.resilience.RagServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -23,20 +35,38 @@ public class PlanService {
 
         private final UserRepository userRepository;
         private final UserPreferencesTemplateRepository preferencesRepository;
-        private final WorkoutPlanRepository workoutPlanRepository;
-        private final DietPlanRepository dietPlanRepository;
         private final PlanBundleRepository planBundleRepository;
-        private final RagLogRepository ragLogRepository;
         private final RagClientService ragClientService;
-        private final ObjectMapper objectMapper;
+        private final PlanPersistenceService planPersistenceService;
+        private final PlanCacheService planCacheService;
+        private final RagLogWriter ragLogWriter;
+        private final MeterRegistry meterRegistry;
 
-        @Transactional
-        public Map<String, Object> generatePlan(Long userId) {
+        private static final int MAX_PLAN_PAGE_SIZE = 100;
+
+        private final Map<String, CompletableFuture<Map<String, Object>>> inFlightGenerations =
+                        new ConcurrentHashMap<>();
+
+        /**
+         * Generates a plan synchronously. No transaction is held across the RAG call:
+         * validation reads run first, the LLM round trip runs without a connection,
+         * and the result is written by {@link PlanPersistenceService} in its own short transaction.
+         */
+        public Map<String, Object> generatePlan(Long userId, boolean bypassCache) {
+                return executePlanGeneration(preparePlanGeneration(userId, bypassCache));
+        }
+
+        /**
+         * Validates that the user may generate a new plan and snapshots their preferences.
+         * With {@code bypassCache} the plan cache is not read, but the fresh result still refreshes it.
+         */
+        public PlanGenerationContext preparePlanGeneration(Long userId, boolean bypassCache) {
                 log.info("Generating plan for user: {}", userId);
 
                 // Verify user exists
-                User user = userRepository.findById(userId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+                if (!userRepository.existsById(userId)) {
+                        throw new RuntimeException("User not found");
+                }
 
                 // Get user preferences
                 UserPreferencesTemplate preferences = preferencesRepository.findByUserId(userId)
@@ -67,92 +97,131 @@ public class PlanService {
                         log.info("Preferences were updated after last plan. Proceeding with plan generation.");
                 }
 
-                // Mark old active plans as abandoned
-                List<PlanBundle> oldActivePlans = planBundleRepository
-                                .findAllByUserIdAndStatus(userId, PlanBundle.PlanStatus.active);
-                
-                if (!oldActivePlans.isEmpty()) {
-                        log.info("Marking {} old active plans as abandoned for user {}", oldActivePlans.size(), userId);
-                        for (PlanBundle oldPlan : oldActivePlans) {
-                                oldPlan.setStatus(PlanBundle.PlanStatus.abandoned);
-                                planBundleRepository.save(oldPlan);
+                // Convert preferences to map for RAG service
+                Map<String, Object> preferencesMap = convertPreferencesToMap(preferences);
+                return new PlanGenerationContext(userId, preferencesMap, preferences.getDurationWeeks(),
+                                planCacheService.keyFor(preferencesMap), bypassCache);
+        }
+
+        /**
+         * Calls the RAG service and persists the result. Must not be called inside a transaction.
+         * Concurrent calls for the same user and preferences (double taps, client retries) are
+         * coalesced: the first caller does the work and the others receive the same bundle.
+         */
+        public Map<String, Object> executePlanGeneration(PlanGenerationContext context) {
+                return executePlanGeneration(context, null);
+        }
+
+        /**
+         * Same as {@link #executePlanGeneration(PlanGenerationContext)}, but streams the RAG response
+         * and forwards progress and partial plan events to {@code listener} as they arrive.
+         */
+        public Map<String, Object> executePlanGeneration(PlanGenerationContext context,
+                        Consumer<Map<String, Object>> listener) {
+                String flightKey = context.getUserId() + ":" + context.getPreferencesHash();
+                CompletableFuture<Map<String, Object>> flight = new CompletableFuture<>();
+                CompletableFuture<Map<String, Object>> existing = inFlightGenerations.putIfAbsent(flightKey, flight);
+
+                if (existing != null) {
+                        meterRegistry.counter("plan.generation.coalesced").increment();
+                        log.info("Joining in-flight plan generation for user {}", context.getUserId());
+                        notifyProgress(listener, "joined_in_flight");
+                        try {
+                                return existing.join();
+                        } catch (CompletionException e) {
+                                throw e.getCause() instanceof RuntimeException cause ? cause : e;
                         }
                 }
 
-                // Convert preferences to map for RAG service
-                Map<String, Object> preferencesMap = convertPreferencesToMap(preferences);
+                meterRegistry.counter("plan.generation.executed").increment();
+                try {
+                        Map<String, Object> response = Collections.unmodifiableMap(generateAndSave(context, listener));
+                        flight.complete(response);
+                        return response;
+                } catch (RuntimeException e) {
+                        flight.completeExceptionally(e);
+                        throw e;
+                } finally {
+                        inFlightGenerations.remove(flightKey, flight);
+                }
+        }
+
+        private Map<String, Object> generateAndSave(PlanGenerationContext context,
+                        Consumer<Map<String, Object>> listener) {
+                Long userId = context.getUserId();
+
+                // Identical profiles reuse a previously generated plan
+                if (!context.isBypassCache()) {
+                        Optional<RawPlanResponse> cached = planCacheService.get(context.getPreferencesHash());
+                        if (cached.isPresent()) {
+                                log.info("Plan cache hit for user {} (preferences {})", userId,
+                                                context.getPreferencesHash());
+                                RawPlanResponse cachedResponse = cached.get();
+                                RagMetadata metadata = cachedResponse.metadata() != null
+                                                ? cachedResponse.metadata().withCacheHit(true)
+                                                : new RagMetadata(null, null, null, null, null, true);
+                                notifyProgress(listener, "cache_hit");
+                                return planPersistenceService.saveGeneratedPlan(context,
+                                                cachedResponse.withMetadata(metadata), 0, true);
+                        }
+                }
 
                 // Call RAG service
                 long startTime = System.currentTimeMillis();
-                Map<String, Object> ragResponse = ragClientService.generatePlan(userId, preferencesMap);
+                RawPlanResponse ragResponse;
+                try {
+                        ragResponse = listener != null
+                                        ? ragClientService.streamPlan(userId, context.getPreferences(), listener)
+                                        : ragClientService.generatePlan(userId, context.getPreferences());
+                } catch (RagServiceUnavailableException e) {
+                        // Refused locally without reaching the RAG service; not a RAG error or latency sample
+                        throw e;
+                } catch (RuntimeException e) {
+                        // Failed calls are logged too, so latency rollups can report error rates
+                        RagLog failure = new RagLog();
+                        failure.setUserId(userId);
+                        failure.setDurationMs((int) (System.currentTimeMillis() - startTime));
+                        failure.setStatus("error");
+                        ragLogWriter.enqueue(failure);
+                        throw e;
+                }
                 long duration = System.currentTimeMillis() - startTime;
 
-                // Extract plans from response
-                Map<String, Object> workoutPlanData = (Map<String, Object>) ragResponse.get("workout_plan");
-                Map<String, Object> dietPlanData = (Map<String, Object>) ragResponse.get("diet_plan");
-                Map<String, Object> metadata = (Map<String, Object>) ragResponse.get("metadata");
-
-                // Save workout plan
-                WorkoutPlan workoutPlan = new WorkoutPlan();
-                workoutPlan.setPlanJson(workoutPlanData);
-                workoutPlan.setTotalWeeks((Integer) workoutPlanData.get("total_weeks"));
-                workoutPlan.setFrequencyPerWeek((Integer) workoutPlanData.get("frequency_per_week"));
-                workoutPlan.setSummary((String) workoutPlanData.get("summary"));
-                workoutPlan = workoutPlanRepository.save(workoutPlan);
-
-                // Save diet plan
-                DietPlan dietPlan = new DietPlan();
-                dietPlan.setPlanJson(dietPlanData);
-                Object caloriesObj = dietPlanData.get("total_daily_calories");
-                dietPlan.setTotalDailyCalories(caloriesObj instanceof Number ? ((Number) caloriesObj).intValue() : 0);
-
-                Object proteinObj = dietPlanData.get("total_daily_protein");
-                dietPlan.setTotalDailyProtein(proteinObj instanceof Number ? ((Number) proteinObj).intValue() : 0);
-                dietPlan.setSummary((String) dietPlanData.get("summary"));
-                dietPlan = dietPlanRepository.save(dietPlan);
-
-                // Create plan bundle
-                PlanBundle planBundle = new PlanBundle();
-                planBundle.setUserId(userId);
-                planBundle.setWorkoutPlanId(workoutPlan.getId());
-                planBundle.setDietPlanId(dietPlan.getId());
-                planBundle.setPreferencesSnapshot(preferencesMap);
-                planBundle.setStatus(PlanBundle.PlanStatus.active);
-                planBundle.setStartDate(LocalDate.now());
-                planBundle.setAllowedChangeDeadline(
-                                LocalDate.now().plusWeeks(
-                                                preferences.getDurationWeeks() != null ? preferences.getDurationWeeks()
-                                                                : 4));
-                planBundle = planBundleRepository.save(planBundle);
-
-                // Log RAG request
-                RagLog ragLog = new RagLog();
-                ragLog.setUserId(userId);
-                ragLog.setPlanBundleId(planBundle.getId());
-                ragLog.setRequestPayload(Map.of("user_id", userId, "preferences", preferencesMap));
-                ragLog.setResponsePayload(ragResponse);
-                ragLog.setModelUsed((String) metadata.get("llm_model"));
-                ragLog.setDurationMs((int) duration);
-                ragLogRepository.save(ragLog);
-
-                // Build response
-                Map<String, Object> response = new HashMap<>();
-                response.put("plan_bundle_id", planBundle.getId());
-                response.put("workout_plan", workoutPlanData);
-                response.put("diet_plan", dietPlanData);
-                response.put("metadata", metadata);
+                planCacheService.put(context.getPreferencesHash(), ragResponse);
+                Map<String, Object> response = planPersistenceService.saveGeneratedPlan(context, ragResponse, duration,
+                                false);
 
                 log.info("Plan generated successfully for user: {}", userId);
                 return response;
         }
 
-        public List<PlanBundle> getUserPlans(Long userId) {
-                return planBundleRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        private void notifyProgress(Consumer<Map<String, Object>> listener, String stage) {
+                if (listener != null) {
+                        listener.accept(Map.of("event", "progress", "stage", stage));
+                }
+        }
+
+        /**
+         * One page of plan history without plan bodies. {@code before} is the {@code nextCursor}
+         * of the previous page (null for the first); {@code nextCursor} is null on the last page.
+         */
+        public Map<String, Object> getUserPlans(Long userId, Long before, int limit) {
+                int pageSize = Math.max(1, Math.min(limit, MAX_PLAN_PAGE_SIZE));
+                List<PlanSummaryResponse> rows = planBundleRepository.findSummaries(userId,
+                                before != null ? before : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+
+                boolean hasMore = rows.size() > pageSize;
+                List<PlanSummaryResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+                Map<String, Object> page = new LinkedHashMap<>();
+                page.put("items", items);
+                page.put("nextCursor", hasMore ? items.get(pageSize - 1).getId() : null);
+                return page;
         }
 
+        // Fetches the plan bodies in the same query; they are lazy everywhere else
         public PlanBundle getPlanBundle(Long bundleId) {
-                return planBundleRepository.findById(bundleId)
-                                .orElseThrow(() -> new RuntimeException("Plan bundle not found"));
+                return planBundleRepository.findWithPlansById(bundleId)
+                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Plan bundle not found"));
         }
 
         private Map<String, Object> convertPreferencesToMap(UserPreferencesTemplate prefs) {
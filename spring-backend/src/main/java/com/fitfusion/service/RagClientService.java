@@ -1,14 +1,27 @@
 package com.fitfusion.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.dto.rag.RawPlanResponse;
+import com.fitfusion.resilience.RagOperation;
+import com.fitfusion.resilience.RagResilienceGuard;
+import com.fitfusion.resilience.RagServiceUnavailableException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +29,11 @@ import java.util.Map;
 public class RagClientService {
 
     private final RestTemplate restTemplate;
+    private final RagResilienceGuard ragResilienceGuard;
+    private final ObjectMapper objectMapper;
+    private final RagResponseParser ragResponseParser;
+
+    private static final TypeReference<Map<String, Object>> EVENT_TYPE = new TypeReference<>() {};
 
     @Value("${rag.service.url}")
     private String ragServiceUrl;
@@ -23,7 +41,11 @@ public class RagClientService {
     @Value("${rag.service.api-key}")
     private String apiKey;
 
-    public Map<String, Object> generatePlan(Long userId, Map<String, Object> preferences) {
+    /**
+     * Calls /generate and parses the response in raw mode: plan bodies are kept as the
+     * JSON text received and never materialized as maps.
+     */
+    public RawPlanResponse generatePlan(Long userId, Map<String, Object> preferences) {
         log.info("Calling RAG service to generate plan for user: {}", userId);
 
         String url = ragServiceUrl + "/generate";
@@ -33,39 +55,104 @@ public class RagClientService {
         requestBody.put("user_id", userId);
         requestBody.put("preferences", preferences);
 
-        // Set headers
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("x-api-key", apiKey);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(
+            RawPlanResponse response = ragResilienceGuard.execute(RagOperation.GENERATE, () -> restTemplate.execute(
                     url,
                     HttpMethod.POST,
-                    request,
-                    Map.class
-            );
+                    request -> writeJsonRequest(request, requestBody),
+                    clientResponse -> ragResponseParser.parseRaw(clientResponse.getBody())
+            ));
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                log.info("Successfully generated plan for user: {}", userId);
-                return response.getBody();
-            } else {
-                throw new RuntimeException("RAG service returned non-OK status: " + response.getStatusCode());
+            if (response == null) {
+                throw new RuntimeException("RAG service returned an empty response");
             }
+            log.info("Successfully generated plan for user: {}", userId);
+            return response;
 
+        } catch (RagServiceUnavailableException e) {
+            log.warn("RAG plan generation refused for user {}: {}", userId, e.getReason());
+            throw e;
         } catch (Exception e) {
             log.error("Error calling RAG service: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to generate plan: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Streaming variant of {@link #generatePlan}: reads the RAG service's NDJSON event stream,
+     * hands each intermediate event to {@code onEvent} as it arrives and returns the payload
+     * of the final {@code complete} event (same shape as the /generate response).
+     */
+    public RawPlanResponse streamPlan(Long userId, Map<String, Object> preferences,
+                                      Consumer<Map<String, Object>> onEvent) {
+        log.info("Streaming plan generation from RAG service for user: {}", userId);
+
+        String url = ragServiceUrl + "/generate/stream";
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("user_id", userId);
+        requestBody.put("preferences", preferences);
+
+        try {
+            RawPlanResponse result = ragResilienceGuard.execute(RagOperation.GENERATE, () -> restTemplate.execute(
+                    url,
+                    HttpMethod.POST,
+                    request -> {
+                        // Compressed streams are buffered upstream; ask for events as they are written
+                        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "identity");
+                        writeJsonRequest(request, requestBody);
+                    },
+                    response -> readEventStream(response.getBody(), onEvent)
+            ));
+
+            if (result == null) {
+                throw new RuntimeException("RAG service stream ended before the plan was complete");
+            }
+            log.info("Successfully streamed plan for user: {}", userId);
+            return result;
+
+        } catch (RagServiceUnavailableException e) {
+            log.warn("RAG plan generation refused for user {}: {}", userId, e.getReason());
+            throw e;
+        } catch (Exception e) {
+            log.error("Error streaming from RAG service: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to generate plan: " + e.getMessage(), e);
+        }
+    }
+
+    private RawPlanResponse readEventStream(InputStream body, Consumer<Map<String, Object>> onEvent)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            if ("complete".equals(ragResponseParser.readEventName(bytes))) {
+                return ragResponseParser.parseRaw(bytes);
+            }
+            Map<String, Object> event = objectMapper.readValue(bytes, EVENT_TYPE);
+            if ("error".equals(event.get("event"))) {
+                throw new RuntimeException(String.valueOf(event.get("message")));
+            }
+            onEvent.accept(event);
+        }
+        return null;
+    }
+
+    private void writeJsonRequest(ClientHttpRequest request, Map<String, Object> body) throws IOException {
+        request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        request.getHeaders().set("x-api-key", apiKey);
+        objectMapper.writeValue(request.getBody(), body);
+    }
+
     public Map<String, Object> getStatus() {
         String url = ragServiceUrl + "/status";
 
         try {
-            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+            ResponseEntity<Map> response = ragResilienceGuard.execute(RagOperation.STATUS,
+                    () -> restTemplate.getForEntity(url, Map.class));
             return response.getBody();
         } catch (Exception e) {
             log.error("Error getting RAG service status: {}", e.getMessage());
@@ -88,16 +175,19 @@ public class RagClientService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(reindexRequest, headers);
 
         try {
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = ragResilienceGuard.execute(RagOperation.REINDEX, () -> restTemplate.exchange(
                     url,
                     HttpMethod.POST,
                     request,
                     Map.class
-            );
+            ));
 
             log.info("Reindex triggered successfully");
             return response.getBody();
 
+        } catch (RagServiceUnavailableException e) {
+            log.warn("RAG reindex refused: {}", e.getReason());
+            throw e;
         } catch (Exception e) {
             log.error("Error triggering reindex: {}", e.getMessage());
             throw new RuntimeException("Failed to trigger reindex: " + e.getMessage(), e);
@@ -0,0 +1,136 @@
+package com.fitfusion.service;
+
+import com.fitfusion.entity.CatalogTombstone;
+import com.fitfusion.entity.RagIndexState;
+import com.fitfusion.repository.CatalogTombstoneRepository;
+import com.fitfusion.repository.ExerciseRepository;
+import com.fitfusion.repository.FoodItemRepository;
+import com.fitfusion.repository.RagIndexStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Works out which catalog rows changed since the RAG index was last brought up to date,
+ * from the {@code updatedAt} watermark and the tombstone table, so a reindex only has to
+ * re-embed those rows. Falls back to a full rebuild when there is no watermark yet or
+ * the delta is too large to be worth sending.
+ */
+@Service
+@Slf4j
+public class RagIndexDeltaService {
+
+    private final ExerciseRepository exerciseRepository;
+    private final FoodItemRepository foodItemRepository;
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
+    private final RagIndexStateRepository ragIndexStateRepository;
+    private final int maxDeltaSize;
+    private final long watermarkOverlapMs;
+
+    public RagIndexDeltaService(ExerciseRepository exerciseRepository,
+                                FoodItemRepository foodItemRepository,
+                                CatalogTombstoneRepository catalogTombstoneRepository,
+                                RagIndexStateRepository ragIndexStateRepository,
+                                @Value("${rag.reindex.max-delta-size:500}") int maxDeltaSize,
+                                @Value("${rag.reindex.watermark-overlap-ms:60000}") long watermarkOverlapMs) {
+        this.exerciseRepository = exerciseRepository;
+        this.foodItemRepository = foodItemRepository;
+        this.catalogTombstoneRepository = catalogTombstoneRepository;
+        this.ragIndexStateRepository = ragIndexStateRepository;
+        this.maxDeltaSize = maxDeltaSize;
+        this.watermarkOverlapMs = watermarkOverlapMs;
+    }
+
+    /**
+     * Changes to index; {@code capturedAt} is what the watermark advances to and
+     * {@code tombstoneIds} are the tombstones dropped once the reindex succeeds.
+     */
+    public record Delta(boolean full,
+                        LocalDateTime capturedAt,
+                        List<Long> tombstoneIds,
+                        List<Long> exerciseIds,
+                        List<Long> foodItemIds,
+                        List<Long> deletedExerciseIds,
+                        List<Long> deletedFoodItemIds) {
+
+        public int size() {
+            return exerciseIds.size() + foodItemIds.size() + deletedExerciseIds.size() + deletedFoodItemIds.size();
+        }
+
+        public boolean isEmpty() {
+            return !full && size() == 0;
+        }
+
+        public Map<String, Object> toRequest() {
+            if (full) {
+                return Map.of("mode", "full");
+            }
+            Map<String, Object> request = new LinkedHashMap<>();
+            request.put("mode", "incremental");
+            request.put("exercise_ids", exerciseIds);
+            request.put("food_item_ids", foodItemIds);
+            request.put("deleted_exercise_ids", deletedExerciseIds);
+            request.put("deleted_food_item_ids", deletedFoodItemIds);
+            return request;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Delta nextDelta() {
+        LocalDateTime capturedAt = LocalDateTime.now();
+        // Every tombstone still present is unconsumed; only the ones read here are dropped
+        // afterwards, so one whose transaction commits late is simply sent next time
+        List<Long> tombstoneIds = new ArrayList<>();
+        List<Long> deletedExerciseIds = new ArrayList<>();
+        List<Long> deletedFoodItemIds = new ArrayList<>();
+        for (CatalogTombstone tombstone : catalogTombstoneRepository.findAllByOrderByIdAsc()) {
+            tombstoneIds.add(tombstone.getId());
+            (tombstone.getSource() == CatalogTombstone.Source.exercise ? deletedExerciseIds : deletedFoodItemIds)
+                    .add(tombstone.getItemId());
+        }
+        RagIndexState state = ragIndexStateRepository.findById(RagIndexState.SINGLETON_ID).orElse(null);
+        if (state == null) {
+            return fullDelta(capturedAt, tombstoneIds);
+        }
+
+        Delta delta = new Delta(false, capturedAt, tombstoneIds,
+                exerciseRepository.findIdsUpdatedSince(state.getIndexedThrough()),
+                foodItemRepository.findIdsUpdatedSince(state.getIndexedThrough()),
+                deletedExerciseIds, deletedFoodItemIds);
+
+        if (delta.size() > maxDeltaSize) {
+            log.info("Catalog delta of {} rows exceeds {}, doing a full reindex", delta.size(), maxDeltaSize);
+            return fullDelta(capturedAt, tombstoneIds);
+        }
+        return delta;
+    }
+
+    /**
+     * Advances the watermark past an indexed delta and drops the tombstones it consumed.
+     */
+    @Transactional
+    public void markIndexed(Delta delta) {
+        RagIndexState state = ragIndexStateRepository.findById(RagIndexState.SINGLETON_ID).orElseGet(RagIndexState::new);
+        // Overlap so rows whose transaction was still open at capture time are picked up next run
+        state.setIndexedThrough(delta.capturedAt().minusNanos(watermarkOverlapMs * 1_000_000));
+        delta.tombstoneIds().stream().max(Long::compare).ifPresent(state::setLastTombstoneId);
+        if (delta.full()) {
+            state.setLastFullReindexAt(delta.capturedAt());
+        }
+        ragIndexStateRepository.save(state);
+        if (!delta.tombstoneIds().isEmpty()) {
+            catalogTombstoneRepository.deleteByIdIn(delta.tombstoneIds());
+        }
+    }
+
+    private Delta fullDelta(LocalDateTime capturedAt, List<Long> tombstoneIds) {
+        return new Delta(true, capturedAt, tombstoneIds, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,173 @@
+package com.fitfusion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.entity.RagLatencyRollup;
+import com.fitfusion.entity.RagRollupState;
+import com.fitfusion.repository.RagLatencyRollupRepository;
+import com.fitfusion.repository.RagRollupStateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolls raw rag_logs rows up into hourly latency summaries per model. Each completed hour
+ * is recomputed from scratch and upserted, so re-running an hour is harmless.
+ */
+@Service
+@Slf4j
+public class RagLatencyRollupService {
+
+    private static final int[] HISTOGRAM_BOUNDS_MS = {1000, 2000, 5000, 10000, 20000, 30000, 45000, 60000, 90000, 120000};
+
+    private static final String UPSERT_SQL = "INSERT INTO rag_latency_rollup (bucket_start, model, request_count, "
+            + "error_count, p50_ms, p95_ms, p99_ms, max_ms, histogram) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE request_count = VALUES(request_count), error_count = VALUES(error_count), "
+            + "p50_ms = VALUES(p50_ms), p95_ms = VALUES(p95_ms), p99_ms = VALUES(p99_ms), max_ms = VALUES(max_ms), "
+            + "histogram = VALUES(histogram)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RagLatencyRollupRepository rollupRepository;
+    private final RagRollupStateRepository rollupStateRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxHoursPerRun;
+
+    public RagLatencyRollupService(JdbcTemplate jdbcTemplate,
+                                   RagLatencyRollupRepository rollupRepository,
+                                   RagRollupStateRepository rollupStateRepository,
+                                   ObjectMapper objectMapper,
+                                   @Value("${rag.rollup.max-hours-per-run:168}") int maxHoursPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupRepository = rollupRepository;
+        this.rollupStateRepository = rollupStateRepository;
+        this.objectMapper = objectMapper;
+        this.maxHoursPerRun = maxHoursPerRun;
+    }
+
+    /**
+     * Rolls up completed hours from the persisted cursor, at most {@code maxHoursPerRun} per
+     * run, so a first run or a long gap is backfilled over several runs rather than skipped.
+     * The hour before the cursor is redone as well, to pick up log entries that were still
+     * queued when it last ran.
+     */
+    @Scheduled(cron = "${rag.rollup.cron:0 5 * * * *}")
+    public void rollupCompletedHours() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        RagRollupState state = rollupStateRepository.findById(RagRollupState.SINGLETON_ID).orElse(null);
+        LocalDateTime from;
+        if (state != null) {
+            from = state.getRolledUpThrough().minusHours(1);
+        } else {
+            state = new RagRollupState();
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM rag_logs", LocalDateTime.class);
+            from = oldest != null ? oldest.truncatedTo(ChronoUnit.HOURS) : currentHour;
+        }
+        LocalDateTime to = from.plusHours(maxHoursPerRun);
+        if (to.isAfter(currentHour)) {
+            to = currentHour;
+        }
+
+        int hours = 0;
+        for (LocalDateTime hour = from; hour.isBefore(to); hour = hour.plusHours(1)) {
+            rollupHour(hour);
+            hours++;
+        }
+        if (state.getRolledUpThrough() == null || to.isAfter(state.getRolledUpThrough())) {
+            state.setRolledUpThrough(to);
+        }
+        rollupStateRepository.save(state);
+        log.debug("Rolled up {} hour(s) of RAG latency, through {}", hours, state.getRolledUpThrough());
+    }
+
+    /**
+     * Latest rollups, oldest first, optionally for one model.
+     */
+    public List<RagLatencyRollup> getRollups(int hours, String model) {
+        LocalDateTime from = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(hours);
+        return model != null
+                ? rollupRepository.findByModelAndBucketStartGreaterThanEqualOrderByBucketStartAsc(model, from)
+                : rollupRepository.findByBucketStartGreaterThanEqualOrderByBucketStartAscModelAsc(from);
+    }
+
+    /**
+     * Oldest hour whose raw rows may be deleted without losing rollup data.
+     */
+    public LocalDateTime getRolledUpThrough() {
+        return rollupStateRepository.findById(RagRollupState.SINGLETON_ID)
+                .map(RagRollupState::getRolledUpThrough)
+                .orElse(null);
+    }
+
+    private void rollupHour(LocalDateTime hourStart) {
+        Map<String, HourStats> statsByModel = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT COALESCE(model_used, 'unknown') AS model, duration_ms, status FROM rag_logs "
+                        + "WHERE timestamp >= ? AND timestamp < ?",
+                rs -> {
+                    HourStats stats = statsByModel.computeIfAbsent(rs.getString("model"), k -> new HourStats());
+                    stats.requests++;
+                    if ("error".equals(rs.getString("status"))) {
+                        stats.errors++;
+                    }
+                    int duration = rs.getInt("duration_ms");
+                    if (!rs.wasNull()) {
+                        stats.durations.add(duration);
+                    }
+                },
+                Timestamp.valueOf(hourStart), Timestamp.valueOf(hourStart.plusHours(1)));
+
+        statsByModel.forEach((model, stats) -> {
+            int[] sorted = stats.durations.stream().mapToInt(Integer::intValue).sorted().toArray();
+            jdbcTemplate.update(UPSERT_SQL,
+                    Timestamp.valueOf(hourStart), model, stats.requests, stats.errors,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted.length > 0 ? sorted[sorted.length - 1] : null,
+                    histogram(sorted));
+        });
+    }
+
+    // Nearest-rank percentile
+    private static Integer percentile(int[] sorted, int p) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private String histogram(int[] sorted) {
+        Map<String, Integer> buckets = new LinkedHashMap<>();
+        int index = 0;
+        for (int bound : HISTOGRAM_BOUNDS_MS) {
+            int count = 0;
+            while (index < sorted.length && sorted[index] <= bound) {
+                count++;
+                index++;
+            }
+            buckets.put(String.valueOf(bound), count);
+        }
+        buckets.put("+Inf", sorted.length - index);
+        try {
+            return objectMapper.writeValueAsString(buckets);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize latency histogram", e);
+        }
+    }
+
+    private static class HourStats {
+        private int requests;
+        private int errors;
+        private final List<Integer> durations = new ArrayList<>();
+    }
+}
@@ -0,0 +1,88 @@
+package com.fitfusion.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Keeps rag_logs small: payloads are stripped after a few days and rows are deleted once
+ * they are old and already covered by latency rollups. Work is done in small LIMIT-ed
+ * statements, each committed on its own, so no long-running lock is held on the table.
+ */
+@Service
+@Slf4j
+public class RagLogRetentionService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RagLatencyRollupService rollupService;
+    private final int payloadRetentionDays;
+    private final int rowRetentionDays;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+
+    public RagLogRetentionService(JdbcTemplate jdbcTemplate,
+                                  RagLatencyRollupService rollupService,
+                                  @Value("${rag.retention.payload-days:7}") int payloadRetentionDays,
+                                  @Value("${rag.retention.row-days:90}") int rowRetentionDays,
+                                  @Value("${rag.retention.chunk-size:500}") int chunkSize,
+                                  @Value("${rag.retention.chunk-pause-ms:100}") long chunkPauseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.payloadRetentionDays = payloadRetentionDays;
+        this.rowRetentionDays = rowRetentionDays;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMs = chunkPauseMs;
+    }
+
+    @Scheduled(cron = "${rag.retention.cron:0 30 3 * * *}")
+    public void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+
+        int stripped = runInChunks("UPDATE rag_logs SET request_payload = NULL, response_payload = NULL "
+                        + "WHERE timestamp < ? AND (request_payload IS NOT NULL OR response_payload IS NOT NULL) LIMIT ?",
+                now.minusDays(payloadRetentionDays));
+
+        // Never delete rows that have not been rolled up yet
+        LocalDateTime deleteBefore = now.minusDays(rowRetentionDays);
+        LocalDateTime rolledUpThrough = rollupService.getRolledUpThrough();
+        if (rolledUpThrough == null) {
+            log.info("RAG log retention: stripped payloads from {} rows; no rollups yet, skipping deletes", stripped);
+            return;
+        }
+        if (rolledUpThrough.isBefore(deleteBefore)) {
+            deleteBefore = rolledUpThrough;
+        }
+        int deleted = runInChunks("DELETE FROM rag_logs WHERE timestamp < ? LIMIT ?", deleteBefore);
+
+        log.info("RAG log retention: stripped payloads from {} rows, deleted {} rows", stripped, deleted);
+    }
+
+    private int runInChunks(String sql, LocalDateTime cutoff) {
+        int total = 0;
+        int affected;
+        do {
+            affected = jdbcTemplate.update(sql, Timestamp.valueOf(cutoff), chunkSize);
+            total += affected;
+            if (affected == chunkSize && !pause()) {
+                break;
+            }
+        } while (affected == chunkSize);
+        return total;
+    }
+
+    // Gives other writers a turn between chunks
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.fitfusion.service;
+
+import com.fitfusion.entity.RagLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind queue for {@link RagLog} rows. Callers never wait on the insert: entries are
+ * queued (after the surrounding transaction commits) and a single background thread writes
+ * them in JDBC batches once a batch fills up or the oldest entry has waited long enough.
+ * Under pressure payloads are stripped (keeping a sample) and, when the queue is full,
+ * entries are dropped rather than blocking the request.
+ */
+@Component
+@Slf4j
+public class RagLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO rag_logs (user_id, plan_bundle_id, request_payload, "
+            + "response_payload, model_used, tokens_used, duration_ms, status, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<RagLog> queue;
+    private final int batchSize;
+    private final long maxDelayMs;
+    private final int payloadPressureThreshold;
+    private final int payloadSampleRate;
+
+    private final Counter droppedCounter;
+    private final Counter strippedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile boolean running = true;
+    private Thread flusher;
+
+    public RagLogWriter(JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${rag.log.queue-capacity:1000}") int queueCapacity,
+                        @Value("${rag.log.batch-size:50}") int batchSize,
+                        @Value("${rag.log.max-delay-ms:2000}") long maxDelayMs,
+                        @Value("${rag.log.payload-pressure-ratio:0.5}") double payloadPressureRatio,
+                        @Value("${rag.log.payload-sample-rate:10}") int payloadSampleRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxDelayMs = maxDelayMs;
+        this.payloadPressureThreshold = (int) (queueCapacity * payloadPressureRatio);
+        this.payloadSampleRate = Math.max(1, payloadSampleRate);
+
+        Gauge.builder("rag.log.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.droppedCounter = meterRegistry.counter("rag.log.dropped");
+        this.strippedCounter = meterRegistry.counter("rag.log.payloads.stripped");
+        this.failedCounter = meterRegistry.counter("rag.log.flush.failed");
+        this.flushTimer = meterRegistry.timer("rag.log.flush");
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = new Thread(this::runFlusher, "rag-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(5000);
+    }
+
+    /**
+     * Queues a log entry; inside a transaction it is queued only once that transaction commits.
+     */
+    public void enqueue(RagLog ragLog) {
+        if (ragLog.getTimestamp() == null) {
+            ragLog.setTimestamp(LocalDateTime.now());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(ragLog);
+                }
+            });
+        } else {
+            offer(ragLog);
+        }
+    }
+
+    private void offer(RagLog ragLog) {
+        if (queue.size() >= payloadPressureThreshold && sequence.incrementAndGet() % payloadSampleRate != 0) {
+            ragLog.setRequestPayload(null);
+            ragLog.setResponsePayload(null);
+            strippedCounter.increment();
+        }
+        if (!queue.offer(ragLog)) {
+            droppedCounter.increment();
+            log.warn("RAG log queue full, dropping log for user {}", ragLog.getUserId());
+        }
+    }
+
+    private void runFlusher() {
+        List<RagLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                RagLog first = queue.poll(maxDelayMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + maxDelayMs;
+                while (running && batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    RagLog next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Shutdown: fall through and flush whatever is left
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<RagLog> batch) {
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batchSize, (ps, entry) -> {
+                ps.setObject(1, entry.getUserId(), Types.BIGINT);
+                ps.setObject(2, entry.getPlanBundleId(), Types.BIGINT);
+                ps.setString(3, entry.getRequestPayload());
+                ps.setString(4, entry.getResponsePayload());
+                ps.setString(5, entry.getModelUsed());
+                ps.setObject(6, entry.getTokensUsed(), Types.INTEGER);
+                ps.setObject(7, entry.getDurationMs(), Types.INTEGER);
+                ps.setString(8, entry.getStatus());
+                ps.setTimestamp(9, Timestamp.valueOf(entry.getTimestamp()));
+            }));
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("Failed to write {} RAG log entries: {}", batch.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.fitfusion.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces catalog changes into as few RAG reindexes as possible. Changes are collected
+ * for a debounce window (bounded by a max delay so a steady stream of edits still gets
+ * indexed), at most one reindex runs at a time, and changes arriving during a run are
+ * folded into a single follow-up run.
+ */
+@Service
+@Slf4j
+public class RagReindexScheduler {
+
+    private final RagClientService ragClientService;
+    private final RagIndexDeltaService ragIndexDeltaService;
+    private final PlanCacheService planCacheService;
+    private final long debounceMs;
+    private final long maxDelayMs;
+    private final long retryDelayMs;
+
+    // Single thread: runs never overlap
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rag-reindex");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private int pendingChanges;
+    private long firstPendingAt;
+    private boolean running;
+    private ScheduledFuture<?> scheduledRun;
+    private long nextRunAt;
+
+    private volatile Instant lastRunAt;
+    private volatile Long lastDurationMs;
+    private volatile String lastResult;
+    private volatile String lastError;
+    private volatile String lastMode;
+    private volatile Integer lastDeltaSize;
+
+    public RagReindexScheduler(RagClientService ragClientService,
+                               RagIndexDeltaService ragIndexDeltaService,
+                               PlanCacheService planCacheService,
+                               @Value("${rag.reindex.debounce-ms:5000}") long debounceMs,
+                               @Value("${rag.reindex.max-delay-ms:60000}") long maxDelayMs,
+                               @Value("${rag.reindex.retry-delay-ms:30000}") long retryDelayMs) {
+        this.ragClientService = ragClientService;
+        this.ragIndexDeltaService = ragIndexDeltaService;
+        this.planCacheService = planCacheService;
+        this.debounceMs = debounceMs;
+        this.maxDelayMs = maxDelayMs;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Records a catalog change. Inside a transaction the change counts only once it commits.
+     */
+    public void requestReindex() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDirty();
+                }
+            });
+        } else {
+            markDirty();
+        }
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("pending_changes", pendingChanges);
+        status.put("running", running);
+        status.put("next_run_at", scheduledRun != null ? Instant.ofEpochMilli(nextRunAt) : null);
+        status.put("last_run_at", lastRunAt);
+        status.put("last_duration_ms", lastDurationMs);
+        status.put("last_result", lastResult);
+        status.put("last_error", lastError);
+        status.put("last_mode", lastMode);
+        status.put("last_delta_size", lastDeltaSize);
+        return status;
+    }
+
+    private synchronized void markDirty() {
+        // Plans built from the old catalog are stale as soon as the change is committed
+        planCacheService.invalidateAll();
+        long now = System.currentTimeMillis();
+        if (pendingChanges == 0) {
+            firstPendingAt = now;
+        }
+        pendingChanges++;
+        if (!running) {
+            schedule(Math.min(now + debounceMs, firstPendingAt + maxDelayMs));
+        }
+        // While a run is in progress the follow-up is scheduled when it finishes
+    }
+
+    private void schedule(long runAt) {
+        if (scheduledRun != null) {
+            scheduledRun.cancel(false);
+        }
+        nextRunAt = runAt;
+        scheduledRun = executor.schedule(this::runReindex,
+                Math.max(0, runAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void runReindex() {
+        int changes;
+        synchronized (this) {
+            if (pendingChanges == 0) {
+                return;
+            }
+            changes = pendingChanges;
+            pendingChanges = 0;
+            scheduledRun = null;
+            running = true;
+        }
+
+        long start = System.currentTimeMillis();
+        boolean succeeded = false;
+        try {
+            // Only rows changed since the last successful run are re-embedded
+            RagIndexDeltaService.Delta delta = ragIndexDeltaService.nextDelta();
+            if (!delta.isEmpty()) {
+                ragClientService.triggerReindex(delta.toRequest());
+                planCacheService.invalidateAll();
+            }
+            ragIndexDeltaService.markIndexed(delta);
+            succeeded = true;
+            lastResult = "success";
+            lastError = null;
+            lastMode = delta.full() ? "full" : "incremental";
+            lastDeltaSize = delta.full() ? null : delta.size();
+            log.info("RAG {} reindex completed for {} coalesced change(s)", lastMode, changes);
+        } catch (Exception e) {
+            lastResult = "error";
+            lastError = e.getMessage();
+            log.warn("RAG reindex for {} change(s) failed: {}", changes, e.getMessage());
+        } finally {
+            long finished = System.currentTimeMillis();
+            lastRunAt = Instant.ofEpochMilli(finished);
+            lastDurationMs = finished - start;
+            synchronized (this) {
+                running = false;
+                if (!succeeded) {
+                    // Keep the changes and try again later
+                    if (pendingChanges == 0) {
+                        firstPendingAt = start;
+                    }
+                    pendingChanges += changes;
+                    schedule(finished + retryDelayMs);
+                } else if (pendingChanges > 0) {
+                    schedule(Math.min(finished + debounceMs, firstPendingAt + maxDelayMs));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.fitfusion.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.dto.rag.RagDietPlan;
+import com.fitfusion.dto.rag.RagMetadata;
+import com.fitfusion.dto.rag.RagPlanResponse;
+import com.fitfusion.dto.rag.RagWorkoutPlan;
+import com.fitfusion.dto.rag.RawPlanResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads RAG plan responses token by token with Jackson's streaming parser instead of
+ * binding the whole document into nested maps.
+ */
+@Component
+@RequiredArgsConstructor
+public class RagResponseParser {
+
+    private static final Set<String> WORKOUT_HEADER_FIELDS = Set.of("total_weeks", "frequency_per_week", "summary");
+    private static final Set<String> DIET_HEADER_FIELDS = Set.of("total_daily_calories", "total_daily_protein", "summary");
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Binds each top-level section straight into the typed records.
+     */
+    public RagPlanResponse parseTyped(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            expectObject(parser.nextToken());
+            String status = null;
+            RagWorkoutPlan workoutPlan = null;
+            RagDietPlan dietPlan = null;
+            RagMetadata metadata = null;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "status" -> status = parser.getValueAsString();
+                    case "workout_plan" -> workoutPlan = parser.readValueAs(RagWorkoutPlan.class);
+                    case "diet_plan" -> dietPlan = parser.readValueAs(RagDietPlan.class);
+                    case "metadata" -> metadata = parser.readValueAs(RagMetadata.class);
+                    default -> parser.skipChildren();
+                }
+            }
+            return new RagPlanResponse(status, workoutPlan, dietPlan, metadata);
+        }
+    }
+
+    public RagWorkoutPlan parseWorkoutPlan(String workoutPlanJson) throws IOException {
+        return objectMapper.readValue(workoutPlanJson, RagWorkoutPlan.class);
+    }
+
+    /**
+     * Copies the workout and diet plan objects out verbatim, picking up only the scalar
+     * header fields on the way. Unknown top-level fields (e.g. a stream's "event") are skipped.
+     */
+    public RawPlanResponse parseRaw(InputStream body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            return readRaw(parser);
+        }
+    }
+
+    public RawPlanResponse parseRaw(byte[] body) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            return readRaw(parser);
+        }
+    }
+
+    /**
+     * Returns the value of a top-level "event" field, scanning past (not binding) anything before it.
+     */
+    public String readEventName(byte[] line) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(line)) {
+            expectObject(parser.nextToken());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("event".equals(field)) {
+                    return parser.getValueAsString();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reassembles a /generate-shaped document from a raw response; plan bodies are written as-is.
+     */
+    public byte[] toJson(RawPlanResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                response.workoutPlanJson().length() + response.dietPlanJson().length() + 256);
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("status", "success");
+            generator.writeFieldName("workout_plan");
+            generator.writeRawValue(response.workoutPlanJson());
+            generator.writeFieldName("diet_plan");
+            generator.writeRawValue(response.dietPlanJson());
+            generator.writeObjectField("metadata", response.metadata());
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private RawPlanResponse readRaw(JsonParser parser) throws IOException {
+        expectObject(parser.nextToken());
+        Captured workout = null;
+        Captured diet = null;
+        RagMetadata metadata = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "workout_plan" -> workout = capture(parser, WORKOUT_HEADER_FIELDS);
+                case "diet_plan" -> diet = capture(parser, DIET_HEADER_FIELDS);
+                case "metadata" -> metadata = parser.readValueAs(RagMetadata.class);
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (workout == null || diet == null) {
+            throw new IOException("RAG response is missing workout_plan or diet_plan");
+        }
+        return new RawPlanResponse(
+                workout.json(),
+                intValue(workout.headers().get("total_weeks")),
+                intValue(workout.headers().get("frequency_per_week")),
+                (String) workout.headers().get("summary"),
+                diet.json(),
+                intValue(diet.headers().get("total_daily_calories")),
+                intValue(diet.headers().get("total_daily_protein")),
+                (String) diet.headers().get("summary"),
+                metadata);
+    }
+
+    private Captured capture(JsonParser parser, Set<String> headerFields) throws IOException {
+        expectObject(parser.currentToken());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        Map<String, Object> headers = new HashMap<>();
+
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                generator.writeFieldName(name);
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue() && headerFields.contains(name)) {
+                    headers.put(name, value.isNumeric() ? parser.getNumberValue()
+                            : value == JsonToken.VALUE_NULL ? null : parser.getText());
+                }
+                generator.copyCurrentStructure(parser);
+            }
+            generator.writeEndObject();
+        }
+        return new Captured(out.toString(StandardCharsets.UTF_8), headers);
+    }
+
+    private static Integer intValue(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
+    private static void expectObject(JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object but found " + token);
+        }
+    }
+
+    private record Captured(String json, Map<String, Object> headers) {
+    }
+}
@@ -0,0 +1,146 @@
+package com.fitfusion.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Users ordered by score (highest first, ties by lower user id) in a treap whose nodes know
+ * their subtree size, so insert, remove and rank are O(log n) and top-N is O(log n + N).
+ * Not thread-safe; {@link LeaderboardService} guards each instance.
+ */
+final class RankedScores {
+
+    private static final class Node {
+        final long userId;
+        final long score;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long userId, long score) {
+            this.userId = userId;
+            this.score = score;
+        }
+    }
+
+    /** One ranked user, as returned by {@link #top}. */
+    record Entry(int rank, long userId, long score) {
+    }
+
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void insert(long userId, long score) {
+        Node[] parts = split(root, userId, score);
+        root = merge(merge(parts[0], new Node(userId, score)), parts[1]);
+    }
+
+    /** Removes the entry if present; {@code score} must be the one it was inserted with. */
+    void remove(long userId, long score) {
+        root = remove(root, userId, score);
+    }
+
+    /** 1-based position of the entry, counting everyone ranked ahead of it. */
+    int rank(long userId, long score) {
+        int ahead = 0;
+        Node node = root;
+        while (node != null) {
+            if (before(userId, score, node.userId, node.score)) {
+                node = node.left;
+            } else {
+                if (node.userId == userId && node.score == score) {
+                    return ahead + size(node.left) + 1;
+                }
+                ahead += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return ahead + 1;
+    }
+
+    List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(Math.min(limit, size()));
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while ((node != null || !stack.isEmpty()) && entries.size() < limit) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left;
+            }
+            node = stack.pop();
+            entries.add(new Entry(entries.size() + 1, node.userId, node.score));
+            node = node.right;
+        }
+        return entries;
+    }
+
+    // Whether (userId, score) sorts before (otherUserId, otherScore)
+    private static boolean before(long userId, long score, long otherUserId, long otherScore) {
+        return score > otherScore || (score == otherScore && userId < otherUserId);
+    }
+
+    // [entries before (userId, score), entries at or after it]
+    private static Node[] split(Node node, long userId, long score) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (before(node.userId, node.score, userId, score)) {
+            Node[] parts = split(node.right, userId, score);
+            node.right = parts[0];
+            update(node);
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, userId, score);
+        node.left = parts[1];
+        update(node);
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node remove(Node node, long userId, long score) {
+        if (node == null) {
+            return null;
+        }
+        if (node.userId == userId && node.score == score) {
+            return merge(node.left, node.right);
+        }
+        if (before(userId, score, node.userId, node.score)) {
+            node.left = remove(node.left, userId, score);
+        } else {
+            node.right = remove(node.right, userId, score);
+        }
+        update(node);
+        return node;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
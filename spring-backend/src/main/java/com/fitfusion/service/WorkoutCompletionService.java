@@ -1,21 +1,40 @@
 package com.fitfusion.service;
 
+import com.fitfusion.dto.BulkWorkoutCompletionRequest;
+import com.fitfusion.dto.BulkWorkoutCompletionResponse;
 import com.fitfusion.dto.UserStatsResponse;
 import com.fitfusion.dto.WorkoutCompletionRequest;
 import com.fitfusion.dto.WorkoutCompletionResponse;
+import com.fitfusion.dto.rag.RagWorkoutPlan;
 import com.fitfusion.entity.PlanBundle;
-import com.fitfusion.entity.User;
 import com.fitfusion.entity.WorkoutCompletion;
 import com.fitfusion.repository.PlanBundleRepository;
-import com.fitfusion.repository.UserRepository;
+import com.fitfusion.repository.UserActivityDailyRepository;
 import com.fitfusion.repository.WorkoutCompletionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,59 +42,193 @@ import java.util.stream.Collectors;
 public class WorkoutCompletionService {
     
     private final WorkoutCompletionRepository completionRepository;
-    private final UserRepository userRepository;
     private final PlanBundleRepository planBundleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RagResponseParser ragResponseParser;
+    private final ActivityRollupService activityRollupService;
+    private final UserActivityDailyRepository activityDailyRepository;
+    private final PlanProgressService planProgressService;
+    private final LeaderboardService leaderboardService;
     
+    // Insert-or-update on the (user, plan, week, day, exercise) unique key
+    private static final String UPSERT_COLUMNS =
+        "INSERT INTO workout_completion (user_id, plan_bundle_id, week_number, day_number, exercise_name, " +
+        "sets_completed, reps_completed, duration_minutes, calories_burned, notes, completed_at) ";
+    private static final String ON_DUPLICATE_UPDATE =
+        " ON DUPLICATE KEY UPDATE workout_completion.id = LAST_INSERT_ID(workout_completion.id), " +
+        "sets_completed = VALUES(sets_completed), reps_completed = VALUES(reps_completed), " +
+        "duration_minutes = VALUES(duration_minutes), calories_burned = VALUES(calories_burned), " +
+        "notes = VALUES(notes), completed_at = VALUES(completed_at)";
+    
+    static final String UPSERT_SQL =
+        UPSERT_COLUMNS + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)" + ON_DUPLICATE_UPDATE;
+    
+    // Same upsert, but inserts nothing unless the plan belongs to the user
+    private static final String OWNED_UPSERT_SQL =
+        UPSERT_COLUMNS + "SELECT pb.user_id, pb.id, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM plan_bundle pb " +
+        "WHERE pb.id = ? AND pb.user_id = ?" + ON_DUPLICATE_UPDATE;
+    
+    private static final int MAX_EXERCISE_NAME_LENGTH = 150;
+    
+    /**
+     * The write is one statement: the upsert selects the plan row so it only inserts for the
+     * plan's owner, and {@code LAST_INSERT_ID(id)} hands back the row id whether it inserted or
+     * updated. Around it, the user's daily activity rollup is corrected in the same transaction.
+     */
     @Transactional
     public WorkoutCompletionResponse markWorkoutComplete(Long userId, WorkoutCompletionRequest request) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        String error = validate(request);
+        if (error != null || request.getPlanBundleId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, error != null ? error : "planBundleId is required");
+        }
+        
+        // The row being replaced, if any, so its day's rollup can be corrected
+        activityRollupService.lockUser(userId);
+        List<Object[]> previous = completionRepository.findCompletionValues(userId, request.getPlanBundleId(),
+            request.getWeekNumber(), request.getDayNumber(), request.getExerciseName());
+        
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int affected = jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(OWNED_UPSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+            bindValues(ps, 1, request, now);
+            ps.setLong(10, request.getPlanBundleId());
+            ps.setLong(11, userId);
+            return ps;
+        }, keyHolder);
+        if (affected == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Plan not found");
+        }
         
-        PlanBundle planBundle = planBundleRepository.findById(request.getPlanBundleId())
-            .orElseThrow(() -> new RuntimeException("Plan not found"));
+        ActivityRollupService.Changes changes = activityRollupService.changes();
+        previous.forEach(row -> changes.remove((LocalDateTime) row[0], (Integer) row[1], (Integer) row[2]));
+        changes.add(now, request.getCaloriesBurned(), request.getDurationMinutes());
+        activityRollupService.apply(userId, changes);
+        leaderboardService.recordChanges(userId, changes);
+        planProgressService.recordChange(request.getPlanBundleId(), List.of(
+            naturalKey(request.getWeekNumber(), request.getDayNumber(), request.getExerciseName())), true);
         
-        // Check if already completed
-        var existing = completionRepository.findByUserIdAndPlanBundleIdAndWeekNumberAndDayNumberAndExerciseName(
-            userId, request.getPlanBundleId(), request.getWeekNumber(), 
-            request.getDayNumber(), request.getExerciseName()
+        // An update reports two keys (id and id + 1); the first is the row's
+        Number id = (Number) keyHolder.getKeyList().get(0).values().iterator().next();
+        return new WorkoutCompletionResponse(
+            id.longValue(),
+            request.getPlanBundleId(),
+            request.getWeekNumber(),
+            request.getDayNumber(),
+            request.getExerciseName(),
+            request.getSetsCompleted(),
+            request.getRepsCompleted(),
+            request.getDurationMinutes(),
+            request.getCaloriesBurned(),
+            request.getNotes(),
+            now
         );
+    }
+    
+    /**
+     * Applies many completions in one transaction: an ownership check, one select of the rows
+     * already present, a single batched upsert, one rollup batch and one select to read the rows back.
+     * Invalid entries are reported per item and do not fail the rest of the batch.
+     */
+    @Transactional
+    public BulkWorkoutCompletionResponse markWorkoutsComplete(Long userId, BulkWorkoutCompletionRequest request) {
+        Long planBundleId = request.getPlanBundleId();
+        if (planBundleId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "planBundleId is required");
+        }
         
-        WorkoutCompletion completion;
-        if (existing.isPresent()) {
-            // Update existing completion
-            completion = existing.get();
-            completion.setSetsCompleted(request.getSetsCompleted());
-            completion.setRepsCompleted(request.getRepsCompleted());
-            completion.setDurationMinutes(request.getDurationMinutes());
-            completion.setCaloriesBurned(request.getCaloriesBurned());
-            completion.setNotes(request.getNotes());
-            completion.setCompletedAt(LocalDateTime.now());
-        } else {
-            // Create new completion
-            completion = new WorkoutCompletion();
-            completion.setUser(user);
-            completion.setPlanBundle(planBundle);
-            completion.setWeekNumber(request.getWeekNumber());
-            completion.setDayNumber(request.getDayNumber());
-            completion.setExerciseName(request.getExerciseName());
-            completion.setSetsCompleted(request.getSetsCompleted());
-            completion.setRepsCompleted(request.getRepsCompleted());
-            completion.setDurationMinutes(request.getDurationMinutes());
-            completion.setCaloriesBurned(request.getCaloriesBurned());
-            completion.setNotes(request.getNotes());
+        List<WorkoutCompletionRequest> entries = new ArrayList<>();
+        if (request.isMarkFromPlan()) {
+            PlanBundle planBundle = planBundleRepository.findByIdAndUserId(planBundleId, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Plan not found"));
+            entries.addAll(entriesFromPlan(planBundle, request.getWeekNumber(), request.getDayNumber()));
+        } else if (!planBundleRepository.existsByIdAndUserId(planBundleId, userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Plan not found");
+        }
+        if (request.getEntries() != null) {
+            entries.addAll(request.getEntries());
+        }
+        
+        // Validate, then collapse repeats of the same key so the last entry wins
+        List<String> itemKeys = new ArrayList<>(entries.size());
+        List<String> itemErrors = new ArrayList<>(entries.size());
+        Map<String, WorkoutCompletionRequest> valid = new LinkedHashMap<>();
+        for (WorkoutCompletionRequest entry : entries) {
+            String error = validate(entry);
+            String key = error == null ? naturalKey(entry.getWeekNumber(), entry.getDayNumber(), entry.getExerciseName()) : null;
+            itemKeys.add(key);
+            itemErrors.add(error);
+            if (key != null) {
+                valid.put(key, entry);
+            }
         }
         
-        completion = completionRepository.save(completion);
-        return mapToResponse(completion);
+        Map<String, Object[]> existing = new HashMap<>();
+        Map<String, WorkoutCompletion> saved = Map.of();
+        if (!valid.isEmpty()) {
+            activityRollupService.lockUser(userId);
+            for (Object[] row : completionRepository.findCompletedValues(userId, planBundleId)) {
+                existing.put(naturalKey((Integer) row[0], (Integer) row[1], (String) row[2]), row);
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(valid.values()), valid.size(),
+                (ps, entry) -> bindUpsert(ps, userId, planBundleId, entry, now));
+            
+            ActivityRollupService.Changes changes = activityRollupService.changes();
+            valid.forEach((key, entry) -> {
+                Object[] old = existing.get(key);
+                if (old != null) {
+                    changes.remove((LocalDateTime) old[3], (Integer) old[4], (Integer) old[5]);
+                }
+                changes.add(now, entry.getCaloriesBurned(), entry.getDurationMinutes());
+            });
+            activityRollupService.apply(userId, changes);
+            leaderboardService.recordChanges(userId, changes);
+            planProgressService.recordChange(planBundleId, List.copyOf(valid.keySet()), true);
+            
+            saved = completionRepository.findByUserIdAndPlanBundleId(userId, planBundleId).stream()
+                .collect(Collectors.toMap(
+                    c -> naturalKey(c.getWeekNumber(), c.getDayNumber(), c.getExerciseName()),
+                    Function.identity(), (a, b) -> a));
+        }
+        
+        List<BulkWorkoutCompletionResponse.ItemResult> results = new ArrayList<>(entries.size());
+        int failed = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            WorkoutCompletionRequest entry = entries.get(i);
+            String key = itemKeys.get(i);
+            WorkoutCompletion completion = key != null ? saved.get(key) : null;
+            if (completion == null) {
+                failed++;
+                results.add(new BulkWorkoutCompletionResponse.ItemResult(
+                    entry.getWeekNumber(), entry.getDayNumber(), entry.getExerciseName(), "invalid",
+                    itemErrors.get(i) != null ? itemErrors.get(i) : "Completion was not saved", null));
+            } else {
+                results.add(new BulkWorkoutCompletionResponse.ItemResult(
+                    entry.getWeekNumber(), entry.getDayNumber(), entry.getExerciseName(),
+                    existing.containsKey(key) ? "updated" : "created", null, mapToResponse(completion)));
+            }
+        }
+        return new BulkWorkoutCompletionResponse(entries.size() - failed, failed, results);
     }
     
     @Transactional
     public void unmarkWorkoutComplete(Long userId, Long planBundleId, Integer weekNumber, 
                                       Integer dayNumber, String exerciseName) {
-        var completion = completionRepository.findByUserIdAndPlanBundleIdAndWeekNumberAndDayNumberAndExerciseName(
-            userId, planBundleId, weekNumber, dayNumber, exerciseName
-        );
-        completion.ifPresent(completionRepository::delete);
+        activityRollupService.lockUser(userId);
+        List<Object[]> previous = completionRepository.findCompletionValues(
+            userId, planBundleId, weekNumber, dayNumber, exerciseName);
+        if (previous.isEmpty()) {
+            return;
+        }
+        completionRepository.deleteByNaturalKey(userId, planBundleId, weekNumber, dayNumber, exerciseName);
+        
+        ActivityRollupService.Changes changes = activityRollupService.changes();
+        previous.forEach(row -> changes.remove((LocalDateTime) row[0], (Integer) row[1], (Integer) row[2]));
+        activityRollupService.apply(userId, changes);
+        leaderboardService.recordChanges(userId, changes);
+        planProgressService.recordChange(planBundleId, List.of(naturalKey(weekNumber, dayNumber, exerciseName)), false);
     }
     
     public List<WorkoutCompletionResponse> getUserPlanCompletions(Long userId, Long planBundleId) {
@@ -92,26 +245,134 @@ public class WorkoutCompletionService {
             .collect(Collectors.toList());
     }
     
+    // Sums the user's daily rollup rows: one row per active day, so at most a year's worth
     public UserStatsResponse getUserStats(Long userId, String period) {
-        LocalDateTime startDate = calculateStartDate(period);
-        
-        Long workouts = completionRepository.countWorkoutsByUserSince(userId, startDate);
-        Long calories = completionRepository.sumCaloriesByUserSince(userId, startDate);
-        Long minutes = completionRepository.sumMinutesByUserSince(userId, startDate);
+        LocalDate startDate = calculateStartDate(period);
         
-        return new UserStatsResponse(workouts, calories, minutes, period);
+        Object[] totals = activityDailyRepository.sumSince(userId, startDate).get(0);
+        return new UserStatsResponse(
+            ((Number) totals[0]).longValue(),
+            ((Number) totals[1]).longValue(),
+            ((Number) totals[2]).longValue(),
+            period);
     }
     
-    private LocalDateTime calculateStartDate(String period) {
-        LocalDateTime now = LocalDateTime.now();
+    // Calendar days including today
+    private LocalDate calculateStartDate(String period) {
+        LocalDate today = activityRollupService.today();
         return switch (period.toLowerCase()) {
-            case "week" -> now.minus(7, ChronoUnit.DAYS);
-            case "month" -> now.minus(30, ChronoUnit.DAYS);
-            case "year" -> now.minus(365, ChronoUnit.DAYS);
-            default -> LocalDateTime.of(2000, 1, 1, 0, 0); // "all" time
+            case "week" -> today.minusDays(6);
+            case "month" -> today.minusDays(29);
+            case "year" -> today.minusDays(364);
+            default -> LocalDate.of(2000, 1, 1); // "all" time
         };
     }
     
+    private List<WorkoutCompletionRequest> entriesFromPlan(PlanBundle planBundle, Integer weekNumber, Integer dayNumber) {
+        if (weekNumber == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "weekNumber is required to mark from the plan");
+        }
+        if (planBundle.getWorkoutPlan() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Plan has no workout plan");
+        }
+        
+        RagWorkoutPlan plan;
+        try {
+            plan = ragResponseParser.parseWorkoutPlan(planBundle.getWorkoutPlan().getPlanJson());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read workout plan", e);
+        }
+        
+        List<WorkoutCompletionRequest> entries = new ArrayList<>();
+        if (plan.weeks() != null) {
+            for (RagWorkoutPlan.Week week : plan.weeks()) {
+                if (!weekNumber.equals(week.weekNumber()) || week.days() == null) {
+                    continue;
+                }
+                for (RagWorkoutPlan.Day day : week.days()) {
+                    if ((dayNumber != null && !dayNumber.equals(day.dayNumber())) || day.exercises() == null) {
+                        continue;
+                    }
+                    for (RagWorkoutPlan.Exercise exercise : day.exercises()) {
+                        WorkoutCompletionRequest entry = new WorkoutCompletionRequest();
+                        entry.setPlanBundleId(planBundle.getId());
+                        entry.setWeekNumber(week.weekNumber());
+                        entry.setDayNumber(day.dayNumber());
+                        entry.setExerciseName(exercise.exerciseName());
+                        entry.setSetsCompleted(exercise.sets());
+                        entry.setRepsCompleted(parseReps(exercise.reps()));
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No exercises found for that week/day in the plan");
+        }
+        return entries;
+    }
+    
+    // Plans give reps as "12" or as a duration like "30 seconds"; only plain counts are recorded
+    private Integer parseReps(String reps) {
+        if (reps == null || !reps.trim().matches("\\d{1,6}")) {
+            return null;
+        }
+        return Integer.valueOf(reps.trim());
+    }
+    
+    private String validate(WorkoutCompletionRequest entry) {
+        if (entry == null) {
+            return "Entry is empty";
+        }
+        if (entry.getWeekNumber() == null || entry.getWeekNumber() < 1) {
+            return "weekNumber must be 1 or greater";
+        }
+        if (entry.getDayNumber() == null || entry.getDayNumber() < 1) {
+            return "dayNumber must be 1 or greater";
+        }
+        if (entry.getExerciseName() == null || entry.getExerciseName().isBlank()) {
+            return "exerciseName is required";
+        }
+        if (entry.getExerciseName().length() > MAX_EXERCISE_NAME_LENGTH) {
+            return "exerciseName is longer than " + MAX_EXERCISE_NAME_LENGTH + " characters";
+        }
+        return null;
+    }
+    
+    // exercise_name compares case-insensitively under the MySQL collation, so the key does too
+    static String naturalKey(Integer weekNumber, Integer dayNumber, String exerciseName) {
+        return weekNumber + ":" + dayNumber + ":" + exerciseName.toLowerCase(Locale.ROOT);
+    }
+    
+    static void bindUpsert(PreparedStatement ps, Long userId, Long planBundleId,
+                           WorkoutCompletionRequest entry, LocalDateTime completedAt) throws SQLException {
+        ps.setLong(1, userId);
+        ps.setLong(2, planBundleId);
+        bindValues(ps, 3, entry, completedAt);
+    }
+    
+    // Binds week_number through completed_at (nine parameters) starting at index
+    private static void bindValues(PreparedStatement ps, int index,
+                                   WorkoutCompletionRequest entry, LocalDateTime completedAt) throws SQLException {
+        ps.setInt(index, entry.getWeekNumber());
+        ps.setInt(index + 1, entry.getDayNumber());
+        ps.setString(index + 2, entry.getExerciseName());
+        setNullableInt(ps, index + 3, entry.getSetsCompleted());
+        setNullableInt(ps, index + 4, entry.getRepsCompleted());
+        setNullableInt(ps, index + 5, entry.getDurationMinutes());
+        setNullableInt(ps, index + 6, entry.getCaloriesBurned());
+        ps.setString(index + 7, entry.getNotes());
+        ps.setTimestamp(index + 8, Timestamp.valueOf(completedAt));
+    }
+    
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+    
     private WorkoutCompletionResponse mapToResponse(WorkoutCompletion completion) {
         return new WorkoutCompletionResponse(
             completion.getId(),
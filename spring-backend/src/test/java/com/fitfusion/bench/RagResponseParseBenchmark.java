@@ -0,0 +1,137 @@
+package com.fitfusion.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitfusion.dto.rag.RagPlanResponse;
+import com.fitfusion.dto.rag.RawPlanResponse;
+import com.fitfusion.service.RagResponseParser;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares time and allocation per parse of a 12-week /generate response: binding it into
+ * nested maps the way {@code ResponseEntity<Map>} did, against the streaming raw and typed
+ * modes of {@link RagResponseParser}. A plain main class, not a test, so {@code mvn test}
+ * does not run it:
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.fitfusion.bench.RagResponseParseBenchmark
+ * </pre>
+ */
+public class RagResponseParseBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 5_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    interface Parse {
+        Object run(byte[] body) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        RagResponseParser parser = new RagResponseParser(objectMapper);
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(objectMapper);
+        byte[] body = objectMapper.writeValueAsBytes(sampleResponse(12, 5, 6));
+
+        System.out.printf("Sample /generate response: %,d bytes, 12 weeks%n%n", body.length);
+        System.out.printf("%-26s %12s %16s%n", "mode", "us/op", "bytes/op");
+
+        measure("ResponseEntity<Map>", body, b -> {
+            MockHttpInputMessage message = new MockHttpInputMessage(b);
+            message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return converter.read(Map.class, message);
+        });
+        measure("parseRaw", body, b -> {
+            RawPlanResponse response = parser.parseRaw(new ByteArrayInputStream(b));
+            return response.workoutPlanJson();
+        });
+        measure("parseTyped", body, b -> {
+            RagPlanResponse response = parser.parseTyped(new ByteArrayInputStream(b));
+            return response.workoutPlan();
+        });
+    }
+
+    private static void measure(String name, byte[] body, Parse parse) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink = parse.run(body);
+        }
+
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink = parse.run(body);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = THREADS.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        if (sink == null) {
+            throw new IllegalStateException(name + " produced no result");
+        }
+        System.out.printf("%-26s %12.1f %,16d%n", name,
+                elapsed / 1_000.0 / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS);
+    }
+
+    // Same shape the RAG service returns from /generate
+    private static Map<String, Object> sampleResponse(int weeks, int daysPerWeek, int exercisesPerDay) {
+        List<Object> weekList = new ArrayList<>();
+        for (int w = 1; w <= weeks; w++) {
+            List<Object> days = new ArrayList<>();
+            for (int d = 1; d <= daysPerWeek; d++) {
+                List<Object> exercises = new ArrayList<>();
+                for (int e = 1; e <= exercisesPerDay; e++) {
+                    Map<String, Object> exercise = new LinkedHashMap<>();
+                    exercise.put("exercise_name", "Exercise " + e + " (week " + w + ")");
+                    exercise.put("sets", 3 + e % 2);
+                    exercise.put("reps", e % 3 == 0 ? "30 seconds" : String.valueOf(8 + e));
+                    exercise.put("rest_seconds", 60 + 15 * (e % 3));
+                    exercise.put("notes", "Keep a controlled tempo and full range of motion");
+                    exercises.add(exercise);
+                }
+                days.add(Map.of("day_number", d, "focus", "Full body " + d, "exercises", exercises));
+            }
+            weekList.add(Map.of("week_number", w, "days", days));
+        }
+        Map<String, Object> workoutPlan = new LinkedHashMap<>();
+        workoutPlan.put("total_weeks", weeks);
+        workoutPlan.put("frequency_per_week", daysPerWeek);
+        workoutPlan.put("summary", "Progressive full-body program");
+        workoutPlan.put("weeks", weekList);
+
+        Map<String, Object> meals = new LinkedHashMap<>();
+        for (String meal : List.of("breakfast", "lunch", "dinner", "snacks")) {
+            List<Object> items = new ArrayList<>();
+            for (int i = 1; i <= 4; i++) {
+                items.add(Map.of("food_name", meal + " item " + i, "serving_size", "100g",
+                        "calories", 150.0 + i * 20, "protein", 10.0 + i, "carbs", 20.0 + i, "fats", 5.0 + i));
+            }
+            meals.put(meal, items);
+        }
+        Map<String, Object> dietPlan = new LinkedHashMap<>();
+        dietPlan.put("total_daily_calories", 2400);
+        dietPlan.put("total_daily_protein", 160);
+        dietPlan.put("summary", "High-protein maintenance diet");
+        dietPlan.put("meals", meals);
+        dietPlan.put("daily_totals", Map.of("calories", 2400.0, "protein", 160.0, "carbs", 250.0, "fats", 80.0));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "success");
+        response.put("workout_plan", workoutPlan);
+        response.put("diet_plan", dietPlan);
+        response.put("metadata", Map.of("duration_ms", 42000, "user_id", 1, "llm_model", "gemini"));
+        return response;
+    }
+}
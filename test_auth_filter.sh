@@ -0,0 +1,87 @@
+#!/bin/bash
+
+echo "🧪 Authenticated Request Latency Test (JWT filter path)"
+echo "=============================================="
+echo "Sends REQUESTS authenticated GETs that all reuse one token, CONCURRENCY at a time, and"
+echo "reports latency and throughput. Repeat calls should be served from the verified-token"
+echo "cache. For a baseline without it, restart the backend with JWT_CACHE_MAXENTRIES=0 and"
+echo "run again. PROBE_PATH picks the endpoint; a cheap one shows the filter's share best."
+echo ""
+
+# Colors
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+BASE_URL="http://localhost:8080/api"
+EMAIL="${EMAIL:-test@example.com}"
+PASSWORD="${PASSWORD:-password123}"
+ADMIN_EMAIL="${ADMIN_EMAIL:-admin@fitfusion.com}"
+ADMIN_PASSWORD="${ADMIN_PASSWORD:-admin123}"
+REQUESTS="${REQUESTS:-2000}"
+CONCURRENCY="${CONCURRENCY:-16}"
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+login() {
+  curl -s -X POST "$BASE_URL/auth/login" \
+    -H "Content-Type: application/json" \
+    -d "{\"email\": \"$1\", \"password\": \"$2\"}"
+}
+
+echo "📝 Step 1: Login as test user"
+echo "------------------------------"
+LOGIN_RESPONSE=$(login "$EMAIL" "$PASSWORD")
+TOKEN=$(echo $LOGIN_RESPONSE | grep -o '"token":"[^"]*' | cut -d'"' -f4)
+USER_ID=$(echo $LOGIN_RESPONSE | grep -o '"id":[0-9]*' | head -1 | cut -d':' -f2)
+
+if [ -z "$TOKEN" ]; then
+  echo -e "${RED}❌ Login failed: $LOGIN_RESPONSE${NC}"
+  exit 1
+fi
+echo -e "${GREEN}✅ Logged in as user $USER_ID${NC}"
+PROBE_PATH="${PROBE_PATH:-/users/$USER_ID/plans?limit=1}"
+echo ""
+
+# cache.gets for the verified-token cache; needs an admin token, prints nothing otherwise
+jwt_cache_gets() {
+  [ -z "$ADMIN_TOKEN" ] && return
+  curl -s "http://localhost:8080/actuator/metrics/cache.gets?tag=cache:jwt&tag=result:$1" \
+    -H "Authorization: Bearer $ADMIN_TOKEN" | grep -o '"value":[0-9.E]*' | head -1 | cut -d':' -f2
+}
+ADMIN_TOKEN=$(login "$ADMIN_EMAIL" "$ADMIN_PASSWORD" | grep -o '"token":"[^"]*' | cut -d'"' -f4)
+HITS_BEFORE=$(jwt_cache_gets hit)
+MISSES_BEFORE=$(jwt_cache_gets miss)
+
+echo "⏱  Step 2: $REQUESTS x GET $PROBE_PATH, $CONCURRENCY at a time, same token"
+echo "------------------------------"
+START=$(date +%s.%N)
+seq "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+  "$BASE_URL$PROBE_PATH" \
+  -H "Authorization: Bearer $TOKEN" > "$WORK_DIR/requests.txt"
+END=$(date +%s.%N)
+
+awk '{ print $2 * 1000, $1 }' "$WORK_DIR/requests.txt" | sort -n > "$WORK_DIR/sorted.txt"
+COUNT=$(wc -l < "$WORK_DIR/sorted.txt")
+FAILED=$(awk '$2 != 200' "$WORK_DIR/sorted.txt" | wc -l)
+pct() {
+  awk -v n="$COUNT" -v p="$1" 'NR == int(n * p / 100 + 0.999) { printf "%.1f", $1 }' "$WORK_DIR/sorted.txt"
+}
+echo "  requests: $COUNT, non-200: $FAILED"
+echo "  latency p50: $(pct 50)ms, p95: $(pct 95)ms, p99: $(pct 99)ms"
+awk -v n="$COUNT" -v s="$START" -v e="$END" 'BEGIN { printf "  throughput: %.0f req/s\n", n / (e - s) }'
+
+if [ -n "$ADMIN_TOKEN" ]; then
+  HITS=$(awk -v a="$(jwt_cache_gets hit)" -v b="$HITS_BEFORE" 'BEGIN { printf "%d", a - b }')
+  MISSES=$(awk -v a="$(jwt_cache_gets miss)" -v b="$MISSES_BEFORE" 'BEGIN { printf "%d", a - b }')
+  echo "  verified-token cache: $HITS hits, $MISSES misses"
+fi
+
+echo ""
+if [ "$FAILED" -eq 0 ]; then
+  echo -e "${GREEN}✅ All requests authenticated${NC}"
+else
+  echo -e "${RED}❌ $FAILED request(s) failed${NC}"
+  exit 1
+fi
@@ -0,0 +1,112 @@
+#!/bin/bash
+
+echo "🧪 Bulk Catalog Import Throughput Test"
+echo "=============================================="
+echo "Times POST /admin/exercises/bulk and /admin/food-items/bulk with ROWS rows each and"
+echo "reports rows per second. Run it on a build before and after JDBC batching"
+echo "(time-ordered ids, hibernate.jdbc.batch_size) to compare. Use a dev database:"
+echo "the rows are tagged with a run id and deleted again unless CLEANUP=0."
+echo ""
+
+# Colors
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+BASE_URL="http://localhost:8080/api"
+ADMIN_EMAIL="${ADMIN_EMAIL:-admin@fitfusion.com}"
+ADMIN_PASSWORD="${ADMIN_PASSWORD:-admin123}"
+ROWS="${ROWS:-1000}"
+RUNS="${RUNS:-3}"
+CLEANUP="${CLEANUP:-1}"
+RUN_ID="bench-$(date +%s)"
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+echo "📝 Step 1: Login as admin"
+echo "------------------------------"
+LOGIN_RESPONSE=$(curl -s -X POST "$BASE_URL/auth/login" \
+  -H "Content-Type: application/json" \
+  -d "{\"email\": \"$ADMIN_EMAIL\", \"password\": \"$ADMIN_PASSWORD\"}")
+
+TOKEN=$(echo $LOGIN_RESPONSE | grep -o '"token":"[^"]*' | cut -d'"' -f4)
+
+if [ -z "$TOKEN" ]; then
+  echo -e "${RED}❌ Login failed: $LOGIN_RESPONSE${NC}"
+  exit 1
+fi
+echo -e "${GREEN}✅ Logged in as admin${NC}"
+echo ""
+
+exercises_payload() {
+  awk -v n="$ROWS" -v tag="$1" 'BEGIN {
+    printf "["
+    for (i = 1; i <= n; i++) {
+      printf "%s{\"name\":\"%s exercise %d\",\"muscleGroup\":\"chest\",\"difficulty\":\"beginner\",", (i > 1 ? "," : ""), tag, i
+      printf "\"equipmentRequired\":[\"dumbbell\"],\"description\":\"Bulk import benchmark row\"}"
+    }
+    printf "]"
+  }'
+}
+
+food_items_payload() {
+  awk -v n="$ROWS" -v tag="$1" 'BEGIN {
+    printf "["
+    for (i = 1; i <= n; i++) {
+      printf "%s{\"name\":\"%s food %d\",\"category\":\"other\",\"caloriesPer100g\":100.0,", (i > 1 ? "," : ""), tag, i
+      printf "\"proteinPer100g\":10.0,\"carbsPer100g\":10.0,\"fatsPer100g\":2.0,\"isVeg\":true,"
+      printf "\"servingDescription\":\"100g serving\",\"description\":\"Bulk import benchmark row\"}"
+    }
+    printf "]"
+  }'
+}
+
+# time_import <path> <payload file> <kind>: prints rows/s, records the rate and created ids
+time_import() {
+  local result
+  result=$(curl -s -o "$WORK_DIR/response.json" -w "%{http_code} %{time_total}" \
+    -X POST "$BASE_URL/admin/$1" \
+    -H "Authorization: Bearer $TOKEN" \
+    -H "Content-Type: application/json" \
+    --data-binary "@$2")
+  local code=${result% *}
+  local seconds=${result#* }
+  if [ "$code" != "200" ]; then
+    echo -e "${RED}❌ POST /admin/$1 returned $code${NC}" >&2
+    head -c 300 "$WORK_DIR/response.json" >&2
+    exit 1
+  fi
+  grep -o "\"id\":[0-9]*" "$WORK_DIR/response.json" | cut -d':' -f2 >> "$WORK_DIR/$3.ids"
+  awk -v rows="$ROWS" -v s="$seconds" 'BEGIN { printf "%.0f\n", rows / s }' >> "$WORK_DIR/$3.rates"
+  awk -v rows="$ROWS" -v s="$seconds" 'BEGIN { printf "%8.0f rows/s  (%.3fs)\n", rows / s, s }'
+}
+
+echo "⏱  Step 2: $RUNS run(s) of $ROWS rows per endpoint"
+echo "------------------------------"
+for run in $(seq "$RUNS"); do
+  exercises_payload "$RUN_ID-$run" > "$WORK_DIR/exercises.json"
+  food_items_payload "$RUN_ID-$run" > "$WORK_DIR/food_items.json"
+  printf "run %d  exercises/bulk   " "$run"
+  time_import "exercises/bulk" "$WORK_DIR/exercises.json" exercises
+  printf "run %d  food-items/bulk  " "$run"
+  time_import "food-items/bulk" "$WORK_DIR/food_items.json" food_items
+done
+
+echo ""
+echo "Median rows/s:"
+for kind in exercises food_items; do
+  MEDIAN=$(sort -n "$WORK_DIR/$kind.rates" | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }')
+  printf "  %-12s %s\n" "$kind" "$MEDIAN"
+done
+
+if [ "$CLEANUP" = "1" ]; then
+  echo ""
+  echo "🧹 Step 3: Deleting the imported rows"
+  echo "------------------------------"
+  xargs -P 8 -I{} curl -s -o /dev/null -X DELETE "$BASE_URL/admin/exercises/{}" \
+    -H "Authorization: Bearer $TOKEN" < "$WORK_DIR/exercises.ids"
+  xargs -P 8 -I{} curl -s -o /dev/null -X DELETE "$BASE_URL/admin/food-items/{}" \
+    -H "Authorization: Bearer $TOKEN" < "$WORK_DIR/food_items.ids"
+  echo -e "${GREEN}✅ Removed $(cat "$WORK_DIR"/*.ids | wc -l) rows${NC}"
+fi
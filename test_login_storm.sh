@@ -0,0 +1,79 @@
+#!/bin/bash
+
+echo "🧪 Login Storm Load Test"
+echo "=============================================="
+echo "Fires concurrent logins (BCrypt on the bounded hashing pool) while timing a cheap"
+echo "authenticated endpoint, to check that other requests stay responsive."
+echo ""
+
+# Colors
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+BASE_URL="http://localhost:8080/api"
+EMAIL="${EMAIL:-test@example.com}"
+PASSWORD="${PASSWORD:-password123}"
+LOGINS="${LOGINS:-400}"
+CONCURRENCY="${CONCURRENCY:-50}"
+PROBES="${PROBES:-40}"
+MAX_PROBE_MS="${MAX_PROBE_MS:-500}"
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+echo "📝 Step 1: Login as test user"
+echo "------------------------------"
+LOGIN_RESPONSE=$(curl -s -X POST "$BASE_URL/auth/login" \
+  -H "Content-Type: application/json" \
+  -d "{\"email\": \"$EMAIL\", \"password\": \"$PASSWORD\"}")
+
+TOKEN=$(echo $LOGIN_RESPONSE | grep -o '"token":"[^"]*' | cut -d'"' -f4)
+USER_ID=$(echo $LOGIN_RESPONSE | grep -o '"id":[0-9]*' | head -1 | cut -d':' -f2)
+
+if [ -z "$TOKEN" ]; then
+  echo -e "${RED}❌ Login failed: $LOGIN_RESPONSE${NC}"
+  exit 1
+fi
+echo -e "${GREEN}✅ Logged in as user $USER_ID${NC}"
+echo ""
+
+echo "🌪  Step 2: $LOGINS logins, $CONCURRENCY at a time"
+echo "------------------------------"
+seq "$LOGINS" | xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null -w "%{http_code}\n" \
+  -X POST "$BASE_URL/auth/login" \
+  -H "Content-Type: application/json" \
+  -d "{\"email\": \"$EMAIL\", \"password\": \"$PASSWORD\"}" > "$WORK_DIR/logins.txt" &
+STORM_PID=$!
+
+echo "⏱  Step 3: Probe GET /users/$USER_ID/plans during the storm"
+echo "------------------------------"
+sleep 1
+for i in $(seq "$PROBES"); do
+  curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+    "$BASE_URL/users/$USER_ID/plans?limit=1" \
+    -H "Authorization: Bearer $TOKEN" >> "$WORK_DIR/probes.txt"
+  sleep 0.25
+done
+wait $STORM_PID
+
+echo ""
+echo "Login status codes (503 = shed by the hashing pool):"
+sort "$WORK_DIR/logins.txt" | uniq -c
+
+echo ""
+echo "Probe latency during the storm:"
+awk '{ ms = $2 * 1000; print ms, $1 }' "$WORK_DIR/probes.txt" | sort -n > "$WORK_DIR/probes_sorted.txt"
+COUNT=$(wc -l < "$WORK_DIR/probes_sorted.txt")
+P50=$(awk -v n="$COUNT" 'NR == int((n + 1) / 2) { printf "%d", $1 }' "$WORK_DIR/probes_sorted.txt")
+P95=$(awk -v n="$COUNT" 'NR == int(n * 0.95 + 0.999) { printf "%d", $1 }' "$WORK_DIR/probes_sorted.txt")
+FAILED=$(awk '$2 != 200' "$WORK_DIR/probes_sorted.txt" | wc -l)
+echo "  probes: $COUNT, non-200: $FAILED, p50: ${P50}ms, p95: ${P95}ms"
+
+echo ""
+if [ "$FAILED" -eq 0 ] && [ "$P95" -le "$MAX_PROBE_MS" ]; then
+  echo -e "${GREEN}✅ Other endpoints stayed responsive (p95 <= ${MAX_PROBE_MS}ms)${NC}"
+else
+  echo -e "${RED}❌ Probes degraded during the login storm${NC}"
+  exit 1
+fi
@@ -0,0 +1,48 @@
+#!/bin/bash
+
+echo "🧪 Testing Streaming Plan Generation (SSE)"
+echo "=============================================="
+echo ""
+echo "Run the backend against the local RAG stub to see chunked output without Gemini:"
+echo "  python rag-service/stub_server.py 8001 1.5"
+echo "  RAG_SERVICE_URL=http://localhost:8001 (backend environment)"
+echo ""
+
+# Colors
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+BASE_URL="http://localhost:8080/api"
+EMAIL="${EMAIL:-test@example.com}"
+PASSWORD="${PASSWORD:-password123}"
+
+echo "📝 Step 1: Login as test user"
+echo "------------------------------"
+LOGIN_RESPONSE=$(curl -s -X POST "$BASE_URL/auth/login" \
+  -H "Content-Type: application/json" \
+  -d "{\"email\": \"$EMAIL\", \"password\": \"$PASSWORD\"}")
+
+TOKEN=$(echo $LOGIN_RESPONSE | grep -o '"token":"[^"]*' | cut -d'"' -f4)
+USER_ID=$(echo $LOGIN_RESPONSE | grep -o '"id":[0-9]*' | head -1 | cut -d':' -f2)
+
+if [ -z "$TOKEN" ]; then
+  echo -e "${RED}❌ Login failed: $LOGIN_RESPONSE${NC}"
+  exit 1
+fi
+echo -e "${GREEN}✅ Logged in as user $USER_ID${NC}"
+echo ""
+
+echo "📡 Step 2: Stream plan generation (events print as they arrive)"
+echo "------------------------------"
+START=$(date +%s)
+curl -s -N -X POST "$BASE_URL/users/$USER_ID/generate-plan/stream?bypassCache=true" \
+  -H "Authorization: Bearer $TOKEN" \
+  -H "Accept: text/event-stream" | while IFS= read -r line; do
+    if [[ "$line" == event:* ]]; then
+      echo "[$(( $(date +%s) - START ))s] ${line#event:}"
+    fi
+  done
+
+echo ""
+echo -e "${GREEN}✅ Stream finished${NC}"